@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.benchmarks;
+
+import com.univocity.api.entity.html.*;
+import com.univocity.api.io.*;
+import com.univocity.parsers.common.*;
+import com.univocity.parsers.html.tutorial.beans.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Measures {@code HtmlParserResult.getBeans()} for the beans used in the tutorial, from flat beans to the nested
+ * {@code @Linked} and {@code @Group} mappings of {@link DailyPriceMap}. Parsing and linking happen once, in the setup,
+ * so only the conversion of rows into beans is measured.
+ *
+ * See {@link ReviewerMappingBenchmark} for a comparison against accessors resolved up front.
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class BeanMappingBenchmark {
+
+	public enum BeanCase {
+		REVIEWER("reviewer", Reviewer.class),
+		COMPANY("company", Company.class),
+		PRICE_DETAILS("fuel", PriceDetails.class),
+		DAILY_PRICE_LIST("dayOfWeek", DailyPriceList.class),
+		DAILY_PRICE_MAP("dayOfWeek", DailyPriceMap.class);
+
+		final String entityName;
+		final Class<?> beanClass;
+
+		BeanCase(String entityName, Class<?> beanClass) {
+			this.entityName = entityName;
+			this.beanClass = beanClass;
+		}
+	}
+
+	@Param
+	public BeanCase beanCase;
+
+	private HtmlParserResult result;
+
+	@Setup
+	public void setup() {
+		if (beanCase == BeanCase.COMPANY) {
+			// same as example 006
+			TutorialCase example = TutorialCase.EXAMPLE_006;
+			Results<HtmlParserResult> results = new HtmlParser(example.createEntityList()).parse(new FileProvider(example.getInputPath(), "UTF-8"));
+			result = results.get("company");
+			result.link(results.get("address"));
+		} else {
+			result = parseLinkedPetrolPrices().get(beanCase.entityName);
+		}
+	}
+
+	/**
+	 * Parses the petrol price table and links its entities like {@code Annotations.getLinkedResults()} does.
+	 *
+	 * @return the linked results
+	 */
+	static Results<HtmlParserResult> parseLinkedPetrolPrices() {
+		TutorialCase example = TutorialCase.PETROL_PRICES;
+		Results<HtmlParserResult> results = new HtmlParser(example.createEntityList()).parse(new FileProvider(example.getInputPath(), "UTF-8"));
+		results.link("dayOfWeek", "fuel");
+		results.link("fuel", "petrolStation", "reviewer");
+		return results;
+	}
+
+	@Benchmark
+	public List<?> getBeans() {
+		return result.getBeans(beanCase.beanClass);
+	}
+}
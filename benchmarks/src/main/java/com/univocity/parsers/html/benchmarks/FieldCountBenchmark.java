@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.benchmarks;
+
+import com.univocity.api.entity.html.*;
+import com.univocity.api.io.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.*;
+
+/**
+ * Shows how the parsing time grows with the number of fields in an entity when all fields share the same path
+ * prefix, as in the "address" entity of {@code TutorialLocal.configureCompanyAddress}: every field matches a
+ * {@code <td>} with a given text, then a {@code <span>} inside it.
+ *
+ * If the matching rules of all fields were evaluated as a single automaton, the time per parse would stay nearly
+ * flat as {@code fieldCount} grows. If each field is evaluated on its own, it grows linearly.
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class FieldCountBenchmark {
+
+	private static final String[] LABELS = {"Street 1:", "Street 2:", "City:", "State:", "Country:", "Postal Code:"};
+
+	@Param({"6", "24", "96"})
+	public int fieldCount;
+
+	private HtmlEntityList entityList;
+
+	@Setup
+	public void setup() {
+		entityList = new HtmlEntityList();
+		HtmlEntitySettings address = entityList.configureEntity("address");
+		for (int i = 0; i < fieldCount; i++) {
+			address.addField("field_" + i).match("td").withText(LABELS[i % LABELS.length]).match("span").getText();
+		}
+	}
+
+	@Benchmark
+	public Object parse() {
+		return new HtmlParser(entityList).parse(new FileProvider(TutorialCase.EXAMPLE_002.getInputPath(), "UTF-8"));
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.benchmarks;
+
+import com.univocity.api.entity.html.*;
+import com.univocity.api.io.*;
+import com.univocity.parsers.html.tutorial.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.util.concurrent.*;
+
+/**
+ * Compares parsing the scaled company finder pages from a {@link FileProvider} against a {@link MappedFileProvider}.
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(2)
+public class InputProviderBenchmark {
+
+	public enum Provider {
+		FILE, MAPPED
+	}
+
+	@Param({"1", "100"})
+	public int scale;
+
+	@Param
+	public Provider provider;
+
+	private HtmlEntityList entityList;
+	private File input;
+
+	@Setup
+	public void setup() {
+		entityList = TutorialCase.COMPANY_FINDER.createEntityList();
+		input = ScaledInput.create(scale);
+	}
+
+	@Benchmark
+	public Object parse() {
+		ReaderProvider reader;
+		if (provider == Provider.MAPPED) {
+			reader = new MappedFileProvider(input, StandardCharsets.UTF_8);
+		} else {
+			reader = new FileProvider(input, "UTF-8");
+		}
+		return new HtmlParser(entityList).parse(reader);
+	}
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.benchmarks;
+
+import com.univocity.api.entity.html.*;
+import com.univocity.api.io.*;
+import com.univocity.parsers.common.*;
+import com.univocity.parsers.html.tutorial.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Measures the cost of joining companies to their addresses, as in {@code TutorialLocal.example005JoiningResults},
+ * against the number of companies. Each company has two addresses (business and mailing), and the rows of both
+ * entities are matched by {@code company_id}.
+ *
+ * The results are parsed once, when the benchmark is set up, from a page generated by
+ * {@link ScaledInput#createCompanies(int)} with the configuration of {@link TutorialCase#EXAMPLE_005}. Only the join
+ * is measured: {@link #resultsJoin()} uses {@code Results.join()}, as the tutorial does, and {@link #hashJoin()} uses
+ * {@link HashJoin}. Both must produce the same number of rows, which is verified during setup.
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class JoinBenchmark {
+
+	@Param({"100", "1000", "10000"})
+	public int companies;
+
+	private Results<HtmlParserResult> results;
+
+	@Setup
+	public void setup() {
+		File input = ScaledInput.createCompanies(companies);
+		results = new HtmlParser(TutorialCase.EXAMPLE_005.createEntityList()).parse(new FileProvider(input, "UTF-8"));
+
+		int expected = resultsJoin().getRows().size();
+		int actual = hashJoin().size();
+		if (expected != actual) {
+			throw new IllegalStateException("Results.join() produced " + expected + " rows but HashJoin produced " + actual);
+		}
+	}
+
+	@Benchmark
+	public HtmlParserResult resultsJoin() {
+		return results.join("company", "address");
+	}
+
+	@Benchmark
+	public List<String[]> hashJoin() {
+		return HashJoin.of(results, "company", "address").getRows();
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.benchmarks;
+
+import com.univocity.api.entity.html.*;
+import com.univocity.api.io.*;
+import com.univocity.parsers.html.tutorial.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Measures the overhead of a {@link HtmlParserListener} on the scaled company finder pages:
+ *
+ * <ul>
+ * <li>{@code NONE}: no listener registered</li>
+ * <li>{@code EMPTY}: a listener that doesn't override any method</li>
+ * <li>{@code PER_ELEMENT}: checks the classes of every visited element, like {@code SimpleValueDetector} does</li>
+ * <li>{@code BATCHED}: the same check, done by a {@link BatchingListener} on batches of 256 elements</li>
+ * </ul>
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(2)
+public class ListenerBenchmark {
+
+	public enum ListenerType {
+		NONE, EMPTY, PER_ELEMENT, BATCHED
+	}
+
+	@Param({"1", "10"})
+	public int scale;
+
+	@Param
+	public ListenerType listenerType;
+
+	private HtmlParser parser;
+	private File input;
+	private Blackhole blackhole;
+
+	@Setup
+	public void setup(Blackhole blackhole) {
+		this.blackhole = blackhole;
+
+		HtmlEntityList entityList = TutorialCase.COMPANY_FINDER.createEntityList();
+		HtmlEntitySettings companies = entityList.getEntity("companies");
+		switch (listenerType) {
+			case EMPTY:
+				companies.setListener(new HtmlParserListener() {
+				});
+				break;
+			case PER_ELEMENT:
+				companies.setListener(new HtmlParserListener() {
+					@Override
+					public void elementVisited(HtmlElement element, HtmlParsingContext context) {
+						consume(element);
+					}
+				});
+				break;
+			case BATCHED:
+				companies.setListener(new BatchingListener() {
+					@Override
+					protected void elementsVisited(List<HtmlElement> elements, HtmlParsingContext context) {
+						for (HtmlElement element : elements) {
+							consume(element);
+						}
+					}
+				});
+				break;
+		}
+
+		parser = new HtmlParser(entityList);
+		input = ScaledInput.create(scale);
+	}
+
+	private void consume(HtmlElement element) {
+		blackhole.consume(element.classes().contains("value"));
+	}
+
+	@Benchmark
+	public Object parse() {
+		return parser.parse(new FileProvider(input, "UTF-8"));
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.benchmarks;
+
+import com.univocity.api.entity.html.*;
+import com.univocity.parsers.annotations.*;
+import com.univocity.parsers.html.tutorial.beans.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.*;
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Compares {@code HtmlParserResult.getBeans(Reviewer.class)} against a row mapper built once with
+ * {@link MethodHandle}s: the constructor and field setters of {@link Reviewer} are resolved up front, and so is the
+ * column of each field. They are combined into a single {@code (String[])Reviewer} handle held in a
+ * {@code static final} field and called with {@code invokeExact()}, so the JIT treats it as a constant and inlines
+ * the whole mapping. Converting a row then only takes one constructor call plus one field store per field.
+ *
+ * {@link Reviewer} only has {@code String} fields without conversions, so the difference between both methods is
+ * the overhead the bean mapper adds on top of copying values into fields.
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class ReviewerMappingBenchmark {
+
+	private static final MethodHandle ROW_MAPPER = createRowMapper(BeanMappingBenchmark.parseLinkedPetrolPrices().get("reviewer").getHeaders());
+
+	private HtmlParserResult reviewers;
+
+	@Setup
+	public void setup() {
+		reviewers = BeanMappingBenchmark.parseLinkedPetrolPrices().get("reviewer");
+	}
+
+	/**
+	 * Builds a handle that creates a {@link Reviewer} and sets each of its {@code @Parsed} fields from the
+	 * corresponding column of a row.
+	 */
+	private static MethodHandle createRowMapper(String[] headerArray) {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+			List<String> headers = Arrays.asList(headerArray);
+
+			// (Reviewer, String[])void, setting one field after the other.
+			MethodHandle setFields = null;
+			MethodHandle element = MethodHandles.arrayElementGetter(String[].class);
+			for (Field field : Reviewer.class.getFields()) {
+				Parsed parsed = field.getAnnotation(Parsed.class);
+				if (parsed == null) {
+					continue;
+				}
+				String name = parsed.field().length > 0 ? parsed.field()[0] : field.getName();
+				int column = headers.indexOf(name);
+				if (column == -1) {
+					continue;
+				}
+				MethodHandle value = MethodHandles.insertArguments(element, 1, column);
+				MethodHandle setField = MethodHandles.filterArguments(lookup.unreflectSetter(field), 1, value);
+				setFields = setFields == null ? setField : MethodHandles.foldArguments(setField, setFields);
+			}
+			if (setFields == null) {
+				throw new IllegalStateException("No fields of " + Reviewer.class.getName() + " in " + headers);
+			}
+
+			// (Reviewer, String[])Reviewer: sets the fields, then returns the instance.
+			MethodHandle populate = MethodHandles.foldArguments(
+					MethodHandles.dropArguments(MethodHandles.identity(Reviewer.class), 1, String[].class), setFields);
+
+			// (String[])Reviewer: creates the instance and populates it.
+			return MethodHandles.foldArguments(populate, lookup.findConstructor(Reviewer.class, MethodType.methodType(void.class)));
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Unable to build row mapper of " + Reviewer.class.getName(), e);
+		}
+	}
+
+	@Benchmark
+	public List<Reviewer> getBeans() {
+		return reviewers.getBeans(Reviewer.class);
+	}
+
+	@Benchmark
+	public List<Reviewer> methodHandles() throws Throwable {
+		List<String[]> rows = reviewers.getRows();
+		List<Reviewer> out = new ArrayList<>(rows.size());
+		for (String[] row : rows) {
+			out.add((Reviewer) ROW_MAPPER.invokeExact(row));
+		}
+		return out;
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.benchmarks;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+
+/**
+ * Generates synthetic inputs from the tutorial pages, repeating their contents a given number of times so the
+ * benchmarks can show how the parser scales with document size:
+ *
+ * <ul>
+ * <li>{@link #create(int)} repeats the rows of the result grid of {@code company_finder/file_1.html}</li>
+ * <li>{@link #createCompanies(int)} repeats the first company of {@code example_002/input.html}, with its business
+ * and mailing addresses</li>
+ * </ul>
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+public final class ScaledInput {
+
+	private static final String SOURCE = "__files/company_finder/file_1.html";
+	private static final String COMPANIES_SOURCE = "documentation/tutorial/html/example_002/input.html";
+
+	private static final String FIRST_ROW = "<tr class=\"Row1\">";
+	private static final String FOOTER = "<tr class=\"footer_grid\"";
+
+	private ScaledInput() {
+
+	}
+
+	/**
+	 * Creates a temporary copy of {@code company_finder/file_1.html} with its result rows repeated {@code scale} times.
+	 * The file is deleted when the JVM exits.
+	 *
+	 * @param scale how many times the rows of the result grid should be repeated. {@code 1} produces an exact copy.
+	 *
+	 * @return the generated file.
+	 */
+	public static File create(int scale) {
+		if (scale < 1) {
+			throw new IllegalArgumentException("Scale must be positive. Got " + scale);
+		}
+		String html = readSource(SOURCE);
+
+		int start = html.indexOf(FIRST_ROW);
+		int end = html.indexOf(FOOTER, start);
+		if (start == -1 || end == -1) {
+			throw new IllegalStateException("Unable to locate the result rows of " + SOURCE);
+		}
+
+		String rows = html.substring(start, end);
+		StringBuilder out = new StringBuilder(html.length() + rows.length() * (scale - 1));
+		out.append(html, 0, start);
+		for (int i = 0; i < scale; i++) {
+			out.append(rows);
+		}
+		out.append(html, end, html.length());
+
+		return write("file_1_x" + scale + "_", out);
+	}
+
+	/**
+	 * Creates a temporary page with {@code companies} copies of the first company of {@code example_002/input.html},
+	 * each one with a different company number. Every company has a business and a mailing address, so the
+	 * configurations of {@code TutorialLocal.example005JoiningResults} produce {@code companies} company rows and
+	 * {@code 2 * companies} address rows. The file is deleted when the JVM exits.
+	 *
+	 * @param companies the number of companies in the generated page
+	 *
+	 * @return the generated file.
+	 */
+	public static File createCompanies(int companies) {
+		if (companies < 1) {
+			throw new IllegalArgumentException("Number of companies must be positive. Got " + companies);
+		}
+		String html = readSource(COMPANIES_SOURCE);
+
+		// the first company goes from its "Company No" label to the end of the last table before the next company (or
+		// before the closing </div> if there's only one). Whitespace between tags is irrelevant.
+		int start = html.indexOf("<span>Company No:");
+		int next = start == -1 ? -1 : html.indexOf("<span>Company No:", start + 1);
+		if (next == -1 && start != -1) {
+			next = html.lastIndexOf("</div>");
+		}
+		int end = next <= start ? -1 : html.lastIndexOf("</table>", next);
+		if (start == -1 || end <= start) {
+			throw new IllegalStateException("Unable to locate the first company of " + COMPANIES_SOURCE);
+		}
+		String company = html.substring(start, end + "</table>".length());
+
+		StringBuilder out = new StringBuilder(company.length() * companies + 32);
+		out.append("<div>\n");
+		for (int i = 0; i < companies; i++) {
+			out.append(company.replace("<b>123</b>", "<b>" + (100000 + i) + "</b>")).append("\n");
+		}
+		out.append("</div>\n");
+
+		return write("companies_x" + companies + "_", out);
+	}
+
+	private static File write(String prefix, CharSequence content) {
+		try {
+			File file = File.createTempFile(prefix, ".html");
+			file.deleteOnExit();
+			Files.write(file.toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+			return file;
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to write scaled input", e);
+		}
+	}
+
+	private static String readSource(String source) {
+		InputStream in = ScaledInput.class.getClassLoader().getResourceAsStream(source);
+		if (in == null) {
+			throw new IllegalStateException("Unable to find " + source + " in the classpath");
+		}
+		try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+			StringBuilder out = new StringBuilder();
+			char[] buffer = new char[8192];
+			int length;
+			while ((length = reader.read(buffer)) != -1) {
+				out.append(buffer, 0, length);
+			}
+			return out.toString();
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to read " + source, e);
+		}
+	}
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.benchmarks;
+
+import com.univocity.api.entity.html.*;
+import com.univocity.api.io.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.util.concurrent.*;
+
+/**
+ * Parses synthetic copies of {@code company_finder/file_1.html} with 1x, 10x and 100x the number of result rows,
+ * using the configuration of {@link TutorialCase#COMPANY_FINDER}.
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(2)
+public class ScaledInputBenchmark {
+
+	@Param({"1", "10", "100"})
+	public int scale;
+
+	private HtmlEntityList entityList;
+	private File input;
+
+	@Setup
+	public void setup() {
+		entityList = TutorialCase.COMPANY_FINDER.createEntityList();
+		input = ScaledInput.create(scale);
+	}
+
+	@Benchmark
+	public Object parse() {
+		return new HtmlParser(entityList).parse(new FileProvider(input, "UTF-8"));
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.benchmarks;
+
+import com.univocity.api.entity.html.*;
+import com.univocity.api.entity.html.builders.*;
+import com.univocity.api.io.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.util.concurrent.*;
+
+/**
+ * Measures the cost of rules that depend on the text of container elements, such as
+ * {@code match("tr").withText(...)} in {@code TutorialLocal.configureAddressFieldsInGroup}. The text of a
+ * {@code <tr>} is the concatenation of the text of all its descendants.
+ *
+ * The same fields are collected with and without a text constraint on each row of the company finder results. The
+ * constraint is satisfied by every result row, so both rule sets collect the same rows: this is verified when the
+ * benchmark is set up. Run with {@code -prof gc}: the difference in allocation rate between both rule sets is the cost of building the
+ * text of every row.
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(2)
+public class TextRuleBenchmark {
+
+	public enum RuleSet {
+		/**
+		 * Rows are matched by their tag name only.
+		 */
+		TAG_ONLY,
+		/**
+		 * Rows must also contain a given text, which forces the parser to build the text of every row.
+		 */
+		TEXT_ON_ROW
+	}
+
+	@Param({"1", "10", "100"})
+	public int scale;
+
+	@Param
+	public RuleSet ruleSet;
+
+	private HtmlEntityList entityList;
+	private File input;
+
+	@Setup
+	public void setup() {
+		input = ScaledInput.create(scale);
+		entityList = createEntityList(ruleSet);
+
+		// both rule sets must collect the same rows, otherwise the difference measured is not the cost of the text.
+		int rows = countRows(entityList);
+		for (RuleSet other : RuleSet.values()) {
+			int otherRows = countRows(createEntityList(other));
+			if (otherRows != rows) {
+				throw new IllegalStateException("Rule set " + ruleSet + " collected " + rows + " rows but " + other + " collected " + otherRows);
+			}
+		}
+	}
+
+	private static HtmlEntityList createEntityList(RuleSet ruleSet) {
+		HtmlEntityList entityList = new HtmlEntityList();
+		HtmlEntitySettings companies = entityList.configureEntity("companies");
+
+		PartialPath row;
+		if (ruleSet == RuleSet.TEXT_ON_ROW) {
+			// every result row has a city in Alabama, so this constraint keeps all rows.
+			row = companies.newPath().match("table").id("ctl00_*_grdSearchResult").match("tr").withText("*, AL *");
+		} else {
+			row = companies.newPath().match("table").id("ctl00_*_grdSearchResult").match("tr");
+		}
+		row.addField("Name").match("a").id("*_hpFirmName").getText();
+		row.addField("City").match("span").id("*_lblCity").getText();
+		return entityList;
+	}
+
+	private int countRows(HtmlEntityList entityList) {
+		return new HtmlParser(entityList).parse(new FileProvider(input, "UTF-8")).get("companies").getRows().size();
+	}
+
+	@Benchmark
+	public Object parse() {
+		return new HtmlParser(entityList).parse(new FileProvider(input, "UTF-8"));
+	}
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.benchmarks;
+
+import com.univocity.api.entity.html.*;
+import com.univocity.api.entity.html.builders.*;
+import com.univocity.api.io.*;
+import com.univocity.parsers.common.*;
+import com.univocity.parsers.html.tutorial.beans.*;
+
+/**
+ * The parser configurations used throughout the tutorial, each paired with the input file it is meant to process.
+ *
+ * The entity definitions are kept identical to the ones in {@code TutorialLocal}, {@code Annotations} and
+ * {@code TutorialAspNet} so the numbers reported by the benchmarks reflect the work done by the tutorial examples.
+ * Input files are loaded from the classpath, i.e. from the tutorial test-jar.
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+public enum TutorialCase {
+
+	EXAMPLE_001("documentation/tutorial/html/example_001/input.html") {
+		@Override
+		protected void configure(HtmlEntityList entityList) {
+			HtmlEntitySettings items = entityList.configureEntity("items");
+			items.addField("name").match("span").classes("prodName").getText();
+			items.addField("description").match("span").classes("prodDesc").getText();
+			items.addField("price").match("span").classes("prodPrice").getText()
+					.transform(price -> price.trim().replaceAll("\\$", ""));
+		}
+	},
+
+	EXAMPLE_002("documentation/tutorial/html/example_002/input.html") {
+		@Override
+		protected void configure(HtmlEntityList entityList) {
+			configureCompany(entityList);
+
+			HtmlEntitySettings address = entityList.configureEntity("address");
+			address.addPersistentField("company_id")
+					.match("div").match("span").precededBy("span").withText("company no")
+					.getText();
+			address.addField("type").match("tr").withText("* address").getText();
+			address.addField("street1").match("td").withText("Street 1").match("span").getText();
+			address.addField("street2").match("span").precededByText("Street 2").getText();
+			addField(address, "city", "City:");
+			addField(address, "state", "State:");
+			addField(address, "country", "Country:");
+			addField(address, "zip", "Postal Code:");
+		}
+	},
+
+	EXAMPLE_003("documentation/tutorial/html/example_002/input.html") {
+		@Override
+		protected void configure(HtmlEntityList entityList) {
+			configureCompanyAndAddressGroups(entityList);
+		}
+	},
+
+	EXAMPLE_004("documentation/tutorial/html/example_002/input.html") {
+		@Override
+		protected void configure(HtmlEntityList entityList) {
+			configureCompanyAndAddressGroups(entityList);
+		}
+
+		@Override
+		public Object parse(HtmlEntityList entityList) {
+			Results<HtmlParserResult> results = (Results<HtmlParserResult>) super.parse(entityList);
+			results.link("company", "address");
+			return results;
+		}
+	},
+
+	EXAMPLE_005("documentation/tutorial/html/example_002/input.html") {
+		@Override
+		protected void configure(HtmlEntityList entityList) {
+			configureCompanyAndAddressGroups(entityList);
+		}
+
+		@Override
+		public Object parse(HtmlEntityList entityList) {
+			Results<HtmlParserResult> results = (Results<HtmlParserResult>) super.parse(entityList);
+			return results.join("company", "address");
+		}
+	},
+
+	EXAMPLE_006("documentation/tutorial/html/example_002/input.html") {
+		@Override
+		protected void configure(HtmlEntityList entityList) {
+			configureCompanyAndAddressGroups(entityList);
+		}
+
+		@Override
+		public Object parse(HtmlEntityList entityList) {
+			Results<HtmlParserResult> results = (Results<HtmlParserResult>) super.parse(entityList);
+			HtmlParserResult companies = results.get("company");
+			companies.link(results.get("address"));
+			return companies.getBeans(Company.class);
+		}
+	},
+
+	EXAMPLE_007("documentation/tutorial/html/example_007/list.html") {
+		@Override
+		protected void configure(HtmlEntityList entityList) {
+			configureProfileFollower(entityList);
+		}
+	},
+
+	EXAMPLE_008("documentation/tutorial/html/example_008/list.html") {
+		@Override
+		protected void configure(HtmlEntityList entityList) {
+			HtmlLinkFollower profileFollower = configureProfileFollower(entityList);
+
+			HtmlLinkFollower addressFollower = profileFollower.addField("addressUrl").match("a")
+					.withExactText("Choose another")
+					.getAttribute("href")
+					.followLink();
+
+			HtmlEntitySettings address = addressFollower.getEntityList().configureEntity("Address");
+			address.addField("address").match("td").underHeader("td").withExactText("Address").getText();
+			address.addField("type").match("input").attribute("type", "radio").attribute("checked").getHeadingText();
+
+			addressFollower.addField("address_count")
+					.match("table")
+					.getElement(table -> String.valueOf(table.query("tr").size() - 1));
+
+			addressFollower.setNesting(Nesting.REPLACE_JOIN);
+		}
+	},
+
+	EXAMPLE_009("documentation/tutorial/html/example_009/page1.html") {
+		@Override
+		protected void configure(HtmlEntityList entityList) {
+			HtmlPaginator paginator = entityList.getPaginator();
+			paginator.setNextPage().match("span").id("nextPage").match("a").getAttribute("href");
+
+			HtmlEntitySettings search = entityList.configureEntity("search");
+			PartialPath resultPath = search.newPath().match("div").classes("result");
+			resultPath.addField("title").match("a").getText();
+			resultPath.addField("link").match("a").getAttribute("href");
+		}
+	},
+
+	PETROL_PRICES("documentation/tutorial/html/annotations/linkedEntityTest.html") {
+		@Override
+		protected void configure(HtmlEntityList entityList) {
+			HtmlEntitySettings dayOfWeek = entityList.configureEntity("dayOfWeek");
+			dayOfWeek.addField("day").matchFirst("thead").match("th").withText("???").getText();
+
+			HtmlEntitySettings petrolStation = entityList.configureEntity("petrolStation");
+			petrolStation.addField("petrol_station_name").match("td").precededBy("th").withText("Retailer").getText();
+
+			HtmlEntitySettings reviewer = entityList.configureEntity("reviewer");
+			reviewer.addField("reviewer_name").match("tfoot").match("td").matchFirst("span").getText();
+			reviewer.addField("reviewer_id").match("tfoot").match("td").matchLast("span").getText().transform(s -> s.substring(1, s.length() - 1));
+
+			HtmlEntitySettings fuel = entityList.configureEntity("fuel");
+			PartialPath fuelPricePath = fuel.newPath().match("table").match("table").match("tr");
+			fuelPricePath.addField("fuel_type").matchFirst("td").getText();
+			fuelPricePath.addField("price").matchLast("td").getText();
+
+			fuel.addPersistentField("day").match("table").match("table").upToHeader("th").getText();
+			fuel.addPersistentField("petrol_station_name").match("td").parentOf("table").getTextAbove();
+			fuel.addPersistentField("reviewer_id")
+					.match("table").match("table").downToFooter("td").containedBy("tfoot")
+					.matchLast("span").getText().transform(s -> s.substring(1, s.length() - 1));
+		}
+	},
+
+	COMPANY_FINDER("__files/company_finder/file_1.html") {
+		@Override
+		protected void configure(HtmlEntityList entityList) {
+			HtmlEntitySettings companies = entityList.configureEntity("companies");
+			PartialPath table = companies.newPath().match("table").id("ctl00_*_grdSearchResult");
+			table.addField("Name").match("a").id("*_hpFirmName").getText();
+			table.addField("City").match("span").id("*_lblCity").getText();
+		}
+	};
+
+	private final String inputPath;
+
+	TutorialCase(String inputPath) {
+		this.inputPath = inputPath;
+	}
+
+	/**
+	 * Adds the entities of this tutorial example to the given entity list
+	 *
+	 * @param entityList the entity list to configure
+	 */
+	protected abstract void configure(HtmlEntityList entityList);
+
+	/**
+	 * Creates a new entity list configured for this tutorial example
+	 *
+	 * @return the configured entity list, ready to be used by a {@link HtmlParser}
+	 */
+	public final HtmlEntityList createEntityList() {
+		HtmlEntityList entityList = new HtmlEntityList();
+		configure(entityList);
+		return entityList;
+	}
+
+	/**
+	 * Returns the path of the input file processed by this example, relative to the classpath root.
+	 *
+	 * @return the input file path
+	 */
+	public final String getInputPath() {
+		return inputPath;
+	}
+
+	/**
+	 * Parses the input file of this example, then performs any additional processing the tutorial does over the
+	 * results (such as linking, joining or converting them to java beans).
+	 *
+	 * @param entityList the entity list returned by {@link #createEntityList()}
+	 *
+	 * @return the results, to be consumed by the benchmark.
+	 */
+	public Object parse(HtmlEntityList entityList) {
+		return new HtmlParser(entityList).parse(new FileProvider(inputPath, "UTF-8"));
+	}
+
+	private static void configureCompany(HtmlEntityList entityList) {
+		HtmlEntitySettings company = entityList.configureEntity("company");
+		company.addField("company_id")
+				.match("div").match("span").precededImmediatelyBy("span").withText("company no")
+				.getText();
+		company.addField("name")
+				.match("span").childOf("b").childOf("td").withText("legal name")
+				.getText();
+	}
+
+	private static void configureCompanyAndAddressGroups(HtmlEntityList entityList) {
+		configureCompany(entityList);
+
+		HtmlEntitySettings address = entityList.configureEntity("address");
+		address.addPersistentField("company_id")
+				.match("div").match("span").precededBy("span").withText("company no")
+				.getText();
+
+		Group businessAdressGroup = address.newGroup()
+				.startAt("tr").withExactTextMatchCase("Business address")
+				.endAt("tr").withTextMatchCase("Mailing address");
+		businessAdressGroup.addField("type", "B");
+		addAddressFieldsToGroup(businessAdressGroup);
+
+		Group mailingAddressGroup = address.newGroup()
+				.startAt("tr").withExactTextMatchCase("Mailing address")
+				.endAtClosing("tr").precededBy("tr").withExactTextMatchCase("Mailing address");
+		mailingAddressGroup.addField("type", "M");
+		addAddressFieldsToGroup(mailingAddressGroup);
+	}
+
+	private static void addAddressFieldsToGroup(Group group) {
+		addField(group, "street1", "Street 1:");
+		addField(group, "street2", "Street 2:");
+		addField(group, "city", "City:");
+		addField(group, "state", "State:");
+		addField(group, "country", "Country:");
+		addField(group, "zip", "Postal Code:");
+	}
+
+	private static void addField(FieldDefinition address, String fieldName, String textToMatch) {
+		address.addField(fieldName).match("td").withText(textToMatch).match("span").getText();
+	}
+
+	private static HtmlLinkFollower configureProfileFollower(HtmlEntityList entityList) {
+		HtmlEntitySettings user = entityList.configureEntity("User");
+		user.addField("name").match("a").getText();
+
+		HtmlLinkFollower profileFollower = user.addField("profileUrl").match("a").getAttribute("href").followLink();
+		getValueFromLabel(profileFollower, "username", "Username");
+		getValueFromLabel(profileFollower, "age", "Age");
+		getValueFromLabel(profileFollower, "location", "Location");
+		getValueFromLabel(profileFollower, "created", "Profile created on");
+		profileFollower.setNesting(Nesting.JOIN);
+
+		return profileFollower;
+	}
+
+	private static void getValueFromLabel(HtmlLinkFollower follower, String fieldName, String key) {
+		follower.addField(fieldName)
+				.match("td").classes("value")
+				.precededImmediatelyBy("td").classes("label").withText(key)
+				.getOwnText();
+	}
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.benchmarks;
+
+import com.univocity.api.entity.html.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.*;
+
+/**
+ * Measures {@code new HtmlParser(entityList).parse(FileProvider)} for every configuration used in the tutorial.
+ *
+ * Throughput is reported in operations per millisecond, and the sample time mode produces the latency percentiles
+ * (p99 included). Run with {@code -prof gc} to get the allocation rate of each case.
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class TutorialParsingBenchmark {
+
+	@Param
+	public TutorialCase tutorialCase;
+
+	private HtmlEntityList entityList;
+
+	@Setup
+	public void setup() {
+		entityList = tutorialCase.createEntityList();
+	}
+
+	@Benchmark
+	public Object parse() {
+		return tutorialCase.parse(entityList);
+	}
+}
@@ -82,6 +82,75 @@ public class Annotations extends Tutorial {
 		printAndValidate();
 	}
 
+	@Test
+	public void internFieldValues() {
+		Results<HtmlParserResult> result = parsePetrolPriceTable();
+
+		//##CODE_START
+		// persistent fields repeat the same day, petrol station and reviewer in every fuel record.
+		// The interner keeps a single instance of each distinct value of every field, and reports its work to the
+		// parser metrics.
+		ParserMetrics metrics = new ParserMetrics();
+		FieldValueInterner interner = new FieldValueInterner(1024, metrics);
+		List<String[]> fuelRows = interner.internRows(result.get("fuel"));
+
+		for (String field : interner.getFieldNames()) {
+			println(field + ": " + interner.getLookups(field) + " values, " + interner.getMisses(field) + " distinct");
+		}
+		println("Total: " + interner.getLookups() + " values, " + interner.getHits() + " duplicates replaced");
+		println("Interned rows: " + fuelRows.size());
+		println("Deduplication ratio reported by the parser metrics: " + String.format(Locale.ENGLISH, "%.2f", metrics.getDeduplicationRatio()));
+		//##CODE_END
+
+		printAndValidate();
+	}
+
+	@Test
+	public void profileFieldCosts() throws Exception {
+		//##CODE_START
+		// Each field of parsePetrolPriceTable() is parsed on its own, to find out which rules cost the most.
+		FieldCostProfiler profiler = new FieldCostProfiler(() -> new FileProvider("documentation/tutorial/html/annotations/linkedEntityTest.html"));
+
+		// the fields are defined with the same rules used by parsePetrolPriceTable().
+		profiler.addField("dayOfWeek", "day", dayOfWeek -> dayOfWeek.addField("day")
+				.matchFirst("thead").match("th").withText("???").getText());
+		profiler.addField("petrolStation", "petrol_station_name", petrolStation -> petrolStation.addField("petrol_station_name")
+				.match("td").precededBy("th").withText("Retailer").getText());
+		profiler.addField("reviewer", "reviewer_name", reviewer -> reviewer.addField("reviewer_name")
+				.match("tfoot").match("td").matchFirst("span").getText());
+		profiler.addField("reviewer", "reviewer_id", reviewer -> reviewer.addField("reviewer_id")
+				.match("tfoot").match("td").matchLast("span").getText().transform(s -> s.substring(1, s.length() - 1)));
+
+		// each fuel field is profiled alone, so each one is added to its own copy of the partial path.
+		profiler.addField("fuel", "fuel_type", fuel -> fuel.newPath().match("table").match("table").match("tr")
+				.addField("fuel_type").matchFirst("td").getText());
+		profiler.addField("fuel", "price", fuel -> fuel.newPath().match("table").match("table").match("tr")
+				.addField("price").matchLast("td").getText());
+		profiler.addField("fuel", "day", fuel -> fuel.addPersistentField("day")
+				.match("table").match("table").upToHeader("th").getText());
+		profiler.addField("fuel", "petrol_station_name", fuel -> fuel.addPersistentField("petrol_station_name")
+				.match("td").parentOf("table").getTextAbove());
+		profiler.addField("fuel", "reviewer_id", fuel -> fuel.addPersistentField("reviewer_id")
+				.match("table").match("table").downToFooter("td").containedBy("tfoot")
+				.matchLast("span").getText().transform(s -> s.substring(1, s.length() - 1)));
+
+		List<FieldCostProfiler.FieldCost> costs = profiler.profile();
+
+		// writes the fields from the most to the least expensive as CSV. The time taken to walk the document, measured
+		// by a baseline parse, is subtracted from the cost of each field.
+		StringBuilder report = new StringBuilder();
+		FieldCostProfiler.writeCsv(costs, report);
+		//##CODE_END
+
+		// timings change on every run, so only the number of matches of each field is validated.
+		System.out.print(report);
+		costs.sort(Comparator.comparing(FieldCostProfiler.FieldCost::getEntityName).thenComparing(FieldCostProfiler.FieldCost::getFieldName));
+		for (FieldCostProfiler.FieldCost cost : costs) {
+			println(cost.getEntityName() + "." + cost.getFieldName() + ": " + cost.getMatches() + " matches");
+		}
+		printAndValidate();
+	}
+
 	public Results<HtmlParserResult> getLinkedResults() {
 		Results<HtmlParserResult> result = parsePetrolPriceTable();
 
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.tutorial;
+
+import com.univocity.api.entity.html.*;
+
+import java.util.*;
+
+/**
+ * A {@link HtmlParserListener} that receives the elements visited by the parser in batches instead of one at a time.
+ *
+ * Listeners like the {@link SimpleValueDetector} inspect every element visited, and large pages have tens of
+ * thousands of them. Collecting the elements into an array and processing them in a tight loop keeps the work done
+ * on each {@code elementVisited} call to a minimum, and lets the batch be processed with bulk operations.
+ *
+ * A batch is delivered to {@link #elementsVisited(List, HtmlParsingContext)} whenever it is full, and also whenever
+ * a document starts or ends, or the parsing context changes. The elements of a batch are therefore always visited in
+ * the same document and delivered with the context in which they were visited, even when the listener is shared by
+ * the pages visited by a link follower, which are parsed while the page that links to them is still being parsed.
+ * Subclasses that override {@link #parsingStarted(HtmlParsingContext)} or {@link #parsingEnded(HtmlParsingContext)}
+ * must call the {@code super} implementation so that batches are not mixed across documents.
+ *
+ * This class is not thread-safe: it keeps the pending batch and the context of its elements between calls. Unlike a
+ * {@link ParserMetrics}, an instance must not be shared by parsers running in different threads. Create one for each
+ * parser or thread.
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+public abstract class BatchingListener extends HtmlParserListener {
+
+	private final HtmlElement[] batch;
+	private final List<HtmlElement> batchView;
+	private int size;
+	private HtmlParsingContext batchContext;
+
+	/**
+	 * Creates a listener that receives 256 elements at a time
+	 */
+	public BatchingListener() {
+		this(256);
+	}
+
+	/**
+	 * Creates a listener that receives a given number of elements at a time
+	 *
+	 * @param batchSize the maximum number of elements in each batch.
+	 */
+	public BatchingListener(int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Batch size must be at least 1. Got " + batchSize);
+		}
+		this.batch = new HtmlElement[batchSize];
+		this.batchView = Arrays.asList(batch);
+	}
+
+	@Override
+	public final void elementVisited(HtmlElement element, HtmlParsingContext context) {
+		if (context != batchContext) {
+			flush();
+			batchContext = context;
+		}
+		batch[size++] = element;
+		if (size == batch.length) {
+			flush();
+		}
+	}
+
+	@Override
+	public void parsingStarted(HtmlParsingContext context) {
+		// the elements collected so far belong to the document that links to the one starting.
+		flush();
+	}
+
+	@Override
+	public void parsingEnded(HtmlParsingContext context) {
+		flush();
+	}
+
+	private void flush() {
+		if (size > 0) {
+			int length = size;
+			size = 0;
+			try {
+				elementsVisited(length == batch.length ? batchView : batchView.subList(0, length), batchContext);
+			} finally {
+				Arrays.fill(batch, 0, length, null);
+			}
+		}
+	}
+
+	/**
+	 * Receives a batch of elements visited by the parser, in the order they were visited.
+	 *
+	 * @param elements the elements visited. The list is reused for the next batch, so copy any element that must be
+	 *                 kept after this method returns.
+	 * @param context  the parsing context in which all elements of the batch were visited.
+	 */
+	protected abstract void elementsVisited(List<HtmlElement> elements, HtmlParsingContext context);
+}
@@ -0,0 +1,388 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.tutorial;
+
+import com.univocity.api.entity.html.*;
+
+import java.util.*;
+
+/**
+ * Stores the rows of an entity column by column, for results too large to be kept as a {@code List<String[]>}.
+ *
+ * By default each field is stored as a dictionary-encoded column: every distinct value is kept once, and each row only
+ * holds the code of its value, using 1, 2 or 4 bytes depending on how many distinct values the column has. Fields
+ * such as {@code type} (with values "B" and "M") or a fuel type take a single byte per row. Fields declared with
+ * {@link #setLongColumn(String)} are converted when each row is added and kept in a {@code long[]}, so they can be
+ * read with {@link #getLong(int, String)} without parsing strings again. Only values that convert back to the exact
+ * same text are stored as numbers: values such as {@code "001"}, {@code " 1"} or an empty string are kept as they
+ * are, so the rows returned by this store always have the values collected by the parser.
+ *
+ * {@code String[]} rows are only created when requested through {@link #getRow(int)} or {@link #getRows()}.
+ *
+ * The store is a {@link HtmlRecordProcessor}, so it can collect the records of an entity straight from a
+ * {@link StreamingHtmlParser}. Records of other entities are ignored. The field names and their order are taken from
+ * the first record or {@link HtmlParserResult} added, and every subsequent one must have the same fields.
+ *
+ * This class is not thread-safe.
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+public class ColumnarRowStore implements HtmlRecordProcessor {
+
+	private final String entityName;
+	private final Set<String> longFields = new LinkedHashSet<>();
+	private String[] headers;
+	private Column[] columns;
+	private int rowCount;
+
+	/**
+	 * Creates a store for the rows of an entity.
+	 *
+	 * @param entityName the name of the entity whose records will be stored.
+	 */
+	public ColumnarRowStore(String entityName) {
+		if (entityName == null) {
+			throw new IllegalArgumentException("Entity name cannot be null");
+		}
+		this.entityName = entityName;
+	}
+
+	/**
+	 * Stores the values of a field as {@code long} values. Must be called before any record or result is added.
+	 *
+	 * @param fieldName the name of a field whose values are whole numbers.
+	 *
+	 * @return this store, for further configuration.
+	 */
+	public ColumnarRowStore setLongColumn(String fieldName) {
+		// columns are built with the first record or result added, even if it has no rows.
+		if (headers != null) {
+			throw new IllegalStateException("Column types must be defined before rows are added");
+		}
+		longFields.add(fieldName);
+		return this;
+	}
+
+	@Override
+	public void recordProcessed(String entityName, HtmlRecord record) {
+		if (this.entityName.equals(entityName)) {
+			initialize(record.getMetaData().headers());
+			addRow(record.getValues());
+		}
+	}
+
+	/**
+	 * Adds all rows of a result to this store
+	 *
+	 * @param result the result of the entity whose rows are stored here.
+	 */
+	public void addRows(HtmlParserResult result) {
+		initialize(result.getHeaders());
+		for (String[] row : result.getRows()) {
+			addRow(row);
+		}
+	}
+
+	private void initialize(String[] fieldNames) {
+		if (headers != null) {
+			if (fieldNames != headers && !Arrays.equals(fieldNames, headers)) {
+				throw new IllegalStateException("Fields of entity '" + entityName + "' changed from " + Arrays.toString(headers) + " to " + Arrays.toString(fieldNames));
+			}
+			return;
+		}
+		if (fieldNames == null || fieldNames.length == 0) {
+			throw new IllegalArgumentException("Entity '" + entityName + "' has no fields");
+		}
+		headers = fieldNames.clone();
+		columns = new Column[headers.length];
+		for (int i = 0; i < columns.length; i++) {
+			columns[i] = new DictionaryColumn();
+		}
+		for (String fieldName : longFields) {
+			columns[indexOf(fieldName)] = new LongColumn(fieldName);
+		}
+	}
+
+	// values beyond the number of headers are discarded and missing values are stored as null.
+	private void addRow(String[] row) {
+		for (int i = 0; i < columns.length; i++) {
+			columns[i].add(rowCount, i < row.length ? row[i] : null);
+		}
+		rowCount++;
+	}
+
+	/**
+	 * Returns the name of the entity whose rows are stored here
+	 *
+	 * @return the entity name
+	 */
+	public String getEntityName() {
+		return entityName;
+	}
+
+	/**
+	 * Returns the names of the fields of each row
+	 *
+	 * @return the headers of this store, or an empty array if no rows were added yet.
+	 */
+	public String[] getHeaders() {
+		return headers == null ? new String[0] : headers.clone();
+	}
+
+	/**
+	 * Returns the number of rows stored so far
+	 *
+	 * @return the row count
+	 */
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * Returns the value of a field of a given row
+	 *
+	 * @param rowIndex  the index of the row
+	 * @param fieldName the name of the field
+	 *
+	 * @return the value, as originally collected by the parser.
+	 */
+	public String getString(int rowIndex, String fieldName) {
+		return columns[indexOf(fieldName)].get(checkRow(rowIndex));
+	}
+
+	/**
+	 * Returns the value of a field declared with {@link #setLongColumn(String)}.
+	 *
+	 * @param rowIndex  the index of the row
+	 * @param fieldName the name of the field
+	 *
+	 * @return the value, or {@code null} if the row has no value for the field.
+	 *
+	 * @throws IllegalArgumentException if the value of the field is not a whole number.
+	 */
+	public Long getLong(int rowIndex, String fieldName) {
+		Column column = columns[indexOf(fieldName)];
+		if (!(column instanceof LongColumn)) {
+			throw new IllegalArgumentException("Field '" + fieldName + "' is not a long column");
+		}
+		return ((LongColumn) column).getLong(checkRow(rowIndex));
+	}
+
+	/**
+	 * Returns the number of distinct values of a dictionary-encoded field
+	 *
+	 * @param fieldName the name of the field
+	 *
+	 * @return the number of distinct values stored for the field, {@code null} included.
+	 */
+	public int getDistinctValueCount(String fieldName) {
+		Column column = columns[indexOf(fieldName)];
+		if (!(column instanceof DictionaryColumn)) {
+			throw new IllegalArgumentException("Field '" + fieldName + "' is not dictionary-encoded");
+		}
+		return ((DictionaryColumn) column).dictionary.size();
+	}
+
+	/**
+	 * Builds a {@code String[]} with the values of a row
+	 *
+	 * @param rowIndex the index of the row
+	 *
+	 * @return a new array with the values of the row
+	 */
+	public String[] getRow(int rowIndex) {
+		checkRow(rowIndex);
+		if (columns == null) {
+			return new String[0];
+		}
+		String[] out = new String[columns.length];
+		for (int i = 0; i < columns.length; i++) {
+			out[i] = columns[i].get(rowIndex);
+		}
+		return out;
+	}
+
+	/**
+	 * Returns a read-only view of the rows. Each {@code String[]} is built when the list element is accessed.
+	 *
+	 * @return the rows of this store.
+	 */
+	public List<String[]> getRows() {
+		return new RowList();
+	}
+
+	private int indexOf(String fieldName) {
+		if (headers == null) {
+			throw new IllegalStateException("No rows of entity '" + entityName + "' were added yet");
+		}
+		for (int i = 0; i < headers.length; i++) {
+			if (headers[i].equals(fieldName)) {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException("Unknown field '" + fieldName + "'. Available fields: " + Arrays.toString(headers));
+	}
+
+	private int checkRow(int rowIndex) {
+		if (rowIndex < 0 || rowIndex >= rowCount) {
+			throw new IndexOutOfBoundsException("Row index " + rowIndex + " out of bounds. Row count: " + rowCount);
+		}
+		return rowIndex;
+	}
+
+	private final class RowList extends AbstractList<String[]> implements RandomAccess {
+		@Override
+		public String[] get(int index) {
+			return getRow(index);
+		}
+
+		@Override
+		public int size() {
+			return rowCount;
+		}
+	}
+
+	private static abstract class Column {
+		abstract void add(int rowIndex, String value);
+
+		abstract String get(int rowIndex);
+	}
+
+	private static final class DictionaryColumn extends Column {
+		private final Map<String, Integer> codes = new HashMap<>();
+		private final List<String> dictionary = new ArrayList<>();
+
+		// only one of these is in use at any time: the code width grows with the dictionary.
+		private byte[] byteCodes = new byte[16];
+		private char[] charCodes;
+		private int[] intCodes;
+
+		@Override
+		void add(int rowIndex, String value) {
+			Integer code = codes.get(value);
+			if (code == null) {
+				code = dictionary.size();
+				dictionary.add(value);
+				codes.put(value, code);
+			}
+			store(rowIndex, code);
+		}
+
+		private void store(int rowIndex, int code) {
+			if (byteCodes != null) {
+				if (code <= 0xFF) {
+					if (rowIndex == byteCodes.length) {
+						byteCodes = Arrays.copyOf(byteCodes, rowIndex * 2);
+					}
+					byteCodes[rowIndex] = (byte) code;
+					return;
+				}
+				charCodes = new char[byteCodes.length];
+				for (int i = 0; i < rowIndex; i++) {
+					charCodes[i] = (char) (byteCodes[i] & 0xFF);
+				}
+				byteCodes = null;
+			}
+			if (charCodes != null) {
+				if (code <= 0xFFFF) {
+					if (rowIndex == charCodes.length) {
+						charCodes = Arrays.copyOf(charCodes, rowIndex * 2);
+					}
+					charCodes[rowIndex] = (char) code;
+					return;
+				}
+				intCodes = new int[charCodes.length];
+				for (int i = 0; i < rowIndex; i++) {
+					intCodes[i] = charCodes[i];
+				}
+				charCodes = null;
+			}
+			if (rowIndex == intCodes.length) {
+				intCodes = Arrays.copyOf(intCodes, rowIndex * 2);
+			}
+			intCodes[rowIndex] = code;
+		}
+
+		@Override
+		String get(int rowIndex) {
+			int code;
+			if (byteCodes != null) {
+				code = byteCodes[rowIndex] & 0xFF;
+			} else if (charCodes != null) {
+				code = charCodes[rowIndex];
+			} else {
+				code = intCodes[rowIndex];
+			}
+			return dictionary.get(code);
+		}
+	}
+
+	private static final class LongColumn extends Column {
+		private final String fieldName;
+		private long[] values = new long[16];
+		private final BitSet nulls = new BitSet();
+
+		// values that don't convert back to the same text, such as "001", are kept as they are.
+		private final Map<Integer, String> texts = new HashMap<>();
+
+		LongColumn(String fieldName) {
+			this.fieldName = fieldName;
+		}
+
+		@Override
+		void add(int rowIndex, String value) {
+			if (rowIndex == values.length) {
+				values = Arrays.copyOf(values, rowIndex * 2);
+			}
+			if (value == null) {
+				nulls.set(rowIndex);
+				return;
+			}
+			Long number = toLong(value);
+			if (number != null && String.valueOf(number.longValue()).equals(value)) {
+				values[rowIndex] = number;
+			} else {
+				texts.put(rowIndex, value);
+			}
+		}
+
+		private static Long toLong(String value) {
+			try {
+				return Long.parseLong(value.trim());
+			} catch (NumberFormatException e) {
+				return null;
+			}
+		}
+
+		Long getLong(int rowIndex) {
+			if (nulls.get(rowIndex)) {
+				return null;
+			}
+			String text = texts.get(rowIndex);
+			if (text == null) {
+				return values[rowIndex];
+			}
+			if (text.trim().isEmpty()) {
+				return null;
+			}
+			Long number = toLong(text);
+			if (number == null) {
+				throw new IllegalArgumentException("Value '" + text + "' of field '" + fieldName + "' is not a whole number");
+			}
+			return number;
+		}
+
+		@Override
+		String get(int rowIndex) {
+			if (nulls.get(rowIndex)) {
+				return null;
+			}
+			String text = texts.get(rowIndex);
+			return text != null ? text : String.valueOf(values[rowIndex]);
+		}
+	}
+}
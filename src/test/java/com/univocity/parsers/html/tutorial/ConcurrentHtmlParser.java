@@ -0,0 +1,366 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.tutorial;
+
+import com.univocity.api.entity.html.*;
+import com.univocity.api.io.*;
+import com.univocity.api.net.*;
+import com.univocity.parsers.common.*;
+import com.univocity.parsers.remote.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+/**
+ * Parses multiple inputs at the same time using a bounded pool of worker threads. This is useful to process the
+ * pages behind a list of links (such as the profile pages of example 007) without waiting for one page to be
+ * downloaded and parsed before going to the next.
+ *
+ * Worker threads never share a {@link HtmlParser}: parsers are taken from a {@link SharedHtmlParser}, each built
+ * once from the {@link HtmlEntityList} returned by the given factory and reused for subsequent inputs. The methods
+ * of this class can be called from multiple threads.
+ *
+ * Results are always returned in the same order of the inputs, regardless of which one finishes first.
+ *
+ * When the URLs of a sequence of result pages can be computed in advance, for example when the page number is a URL
+ * parameter, {@link #parsePages(UrlReaderProvider, String, int, int)} can be used instead of a
+ * {@link HtmlPaginator}: the next pages are requested while the current one is still being fetched and parsed.
+ *
+ * Pages stored locally by a previous run, e.g. with {@code setFileNamePattern()}, can be reprocessed in bulk with
+ * {@link #parseDirectory(File, String, String)}.
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+public class ConcurrentHtmlParser implements Closeable {
+
+	private final SharedHtmlParser sharedParser;
+	private final ExecutorService executor;
+	private final int parallelism;
+	private final long remoteInterval;
+
+	private long nextRequestTime;
+	private HostRateLimiter rateLimiter;
+
+	/**
+	 * Creates a parser that processes up to {@code parallelism} inputs at the same time.
+	 *
+	 * The interval between remote requests configured with {@code HtmlParserSettings.setRemoteInterval()} in the
+	 * entity list is respected by all worker threads together, as if a single parser made every request.
+	 *
+	 * @param entityListFactory produces the entity list used by each worker thread.
+	 * @param parallelism       the maximum number of inputs being fetched and parsed at any given time.
+	 */
+	public ConcurrentHtmlParser(Supplier<HtmlEntityList> entityListFactory, int parallelism) {
+		if (entityListFactory == null) {
+			throw new IllegalArgumentException("Entity list factory cannot be null");
+		}
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be at least 1. Got " + parallelism);
+		}
+		HtmlEntityList first = entityListFactory.get();
+		if (first == null) {
+			throw new IllegalStateException("Entity list factory returned null");
+		}
+		this.remoteInterval = first.getParserSettings().getRemoteInterval();
+
+		// the entity list used to read the settings becomes the one of the first worker.
+		AtomicReference<HtmlEntityList> unused = new AtomicReference<>(first);
+		this.sharedParser = new SharedHtmlParser(() -> {
+			HtmlEntityList entityList = unused.getAndSet(null);
+			return entityList != null ? entityList : entityListFactory.get();
+		}, parallelism);
+		this.parallelism = parallelism;
+		this.executor = Executors.newFixedThreadPool(parallelism, new WorkerThreadFactory());
+	}
+
+	/**
+	 * Limits the rate of remote requests made by the worker threads on a per-host basis. The same rate limiter can
+	 * be shared with other parsers and paginators (see {@link HostRateLimiter#throttle(NextInputHandler)}).
+	 *
+	 * @param rateLimiter the rate limiter to use, or {@code null} to disable rate limiting.
+	 */
+	public synchronized void setRateLimiter(HostRateLimiter rateLimiter) {
+		this.rateLimiter = rateLimiter;
+	}
+
+	/**
+	 * Parses a sequence of result pages whose URLs differ only by a page number parameter. Up to {@code parallelism}
+	 * pages are requested at the same time: while the results of a page are awaited, the pages after it are already
+	 * being fetched and parsed.
+	 *
+	 * Like a {@link HtmlPaginator}, this stops at the last page: the first page that doesn't exist (the server answers
+	 * {@code 404 Not Found}) or that produces no rows ends the sequence, and the pages requested after it are cancelled.
+	 * The results of the pages before it are returned, so {@code followCount} can safely be larger than the number of
+	 * pages available. Any other error, such as a timeout or a server error, is thrown and the results collected so far
+	 * are discarded, so a partial crawl is never mistaken for a complete one. A missing first page is also thrown.
+	 *
+	 * The entity list used by the worker threads must not have a {@link HtmlPaginator} configured, otherwise each
+	 * worker will paginate on its own.
+	 *
+	 * @param firstPage       the request for the first page. It is cloned for each subsequent page.
+	 * @param pageParameter   the name of the URL parameter with the page number.
+	 * @param firstPageNumber the page number of the first page.
+	 * @param followCount     the maximum number of pages to visit after the first page. Works like
+	 *                        {@code HtmlPaginator.setFollowCount()}.
+	 *
+	 * @return the results of each page, in page order, up to the last page with rows.
+	 */
+	public List<Results<HtmlParserResult>> parsePages(UrlReaderProvider firstPage, String pageParameter, int firstPageNumber, int followCount) {
+		Deque<Future<Results<HtmlParserResult>>> pending = new ArrayDeque<>(parallelism);
+		List<Results<HtmlParserResult>> out = new ArrayList<>();
+		int nextPage = 0;
+		try {
+			while (true) {
+				while (pending.size() < parallelism && nextPage <= followCount) {
+					UrlReaderProvider page = firstPage.clone();
+					page.getRequest().setUrlParameter(pageParameter, firstPageNumber + nextPage++);
+					pending.add(executor.submit(() -> parse(page)));
+				}
+				Future<Results<HtmlParserResult>> next = pending.poll();
+				if (next == null) {
+					return out;
+				}
+
+				Results<HtmlParserResult> results;
+				try {
+					results = getResult(next);
+				} catch (RuntimeException e) {
+					if (out.isEmpty() || !isMissingPage(e)) {
+						throw e;
+					}
+					return out;
+				}
+				if (!hasRows(results)) {
+					return out;
+				}
+				out.add(results);
+			}
+		} finally {
+			for (Future<?> result : pending) {
+				result.cancel(true);
+			}
+		}
+	}
+
+	// HttpURLConnection reports a "404 Not Found" response with a FileNotFoundException.
+	private static boolean isMissingPage(Throwable e) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof FileNotFoundException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean hasRows(Results<HtmlParserResult> results) {
+		for (HtmlParserResult result : results.values()) {
+			if (!result.getRows().isEmpty()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Parses every file under a directory (and its subdirectories) whose path matches a glob pattern. Files are
+	 * processed in the order of their paths relative to the given directory, so the results of the same directory
+	 * are always returned in the same order, regardless of how many worker threads are used.
+	 *
+	 * @param directory the directory with the files to parse
+	 * @param glob      pattern of the relative paths of the files to parse, e.g. {@code "*.html"}. Use {@code **} to
+	 *                  cross directory boundaries, or {@code null} to parse all files.
+	 * @param encoding  the encoding of the files
+	 *
+	 * @return the results of each file, in path order.
+	 */
+	public List<Results<HtmlParserResult>> parseDirectory(File directory, String glob, String encoding) {
+		List<FileProvider> files = new ArrayList<>();
+		for (Path path : listFiles(directory, glob)) {
+			files.add(new FileProvider(path.toFile(), encoding));
+		}
+		return parseAll(files);
+	}
+
+	/**
+	 * Parses every file under a directory whose path matches a glob pattern. Like {@link FileProvider}, the
+	 * directory is looked up in the classpath if it can't be found in the file system.
+	 *
+	 * @param directoryPath the path to the directory with the files to parse
+	 * @param glob          pattern of the relative paths of the files to parse. Use {@code null} to parse all files.
+	 * @param encoding      the encoding of the files
+	 *
+	 * @return the results of each file, in path order.
+	 *
+	 * @see #parseDirectory(File, String, String)
+	 */
+	public List<Results<HtmlParserResult>> parseDirectory(String directoryPath, String glob, String encoding) {
+		return parseDirectory(MappedFileProvider.findFile(directoryPath), glob, encoding);
+	}
+
+	private static List<Path> listFiles(File directory, String glob) {
+		if (!directory.isDirectory()) {
+			throw new IllegalArgumentException("Not a directory: '" + directory.getAbsolutePath() + "'");
+		}
+		Path root = directory.toPath();
+		PathMatcher matcher = glob == null ? null : root.getFileSystem().getPathMatcher("glob:" + glob);
+
+		List<Path> out = new ArrayList<>();
+		try {
+			Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+					if (attributes.isRegularFile() && (matcher == null || matcher.matches(root.relativize(file)))) {
+						out.add(file);
+					}
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to list files of directory '" + directory.getAbsolutePath() + "'", e);
+		}
+
+		// the order in which the file system lists files is not defined.
+		out.sort(Comparator.comparing(file -> root.relativize(file).toString()));
+		return out;
+	}
+
+	/**
+	 * Parses all inputs, blocking until every one of them has been processed.
+	 *
+	 * @param inputs the inputs to parse
+	 *
+	 * @return the results of each input, in the same order of the given list.
+	 */
+	public List<Results<HtmlParserResult>> parseAll(List<? extends ReaderProvider> inputs) {
+		List<Future<Results<HtmlParserResult>>> pending = new ArrayList<>(inputs.size());
+		for (ReaderProvider input : inputs) {
+			pending.add(executor.submit(() -> parse(input)));
+		}
+
+		List<Results<HtmlParserResult>> out = new ArrayList<>(inputs.size());
+		try {
+			for (Future<Results<HtmlParserResult>> result : pending) {
+				out.add(getResult(result));
+			}
+		} finally {
+			for (Future<?> result : pending) {
+				result.cancel(true);
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * Returns the rows of an entity collected from multiple inputs, in the order of the given results.
+	 *
+	 * @param results    the results returned by {@link #parseAll(List)} or {@link #parsePages(UrlReaderProvider, String, int, int)}
+	 * @param entityName the name of the entity whose rows should be collected
+	 *
+	 * @return all rows of the given entity.
+	 */
+	public static List<String[]> getRows(List<Results<HtmlParserResult>> results, String entityName) {
+		List<String[]> out = new ArrayList<>();
+		for (Results<HtmlParserResult> result : results) {
+			HtmlParserResult entityResult = result.get(entityName);
+			if (entityResult != null) {
+				out.addAll(entityResult.getRows());
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * Returns the rows of every entity collected from multiple inputs. Rows of each entity are kept in the order of
+	 * the given results.
+	 *
+	 * @param results the results returned by any of the {@code parse} methods of this class
+	 *
+	 * @return a map of entity names to their rows, in the order the entities first appear in the results.
+	 */
+	public static Map<String, List<String[]>> getRowsByEntity(List<Results<HtmlParserResult>> results) {
+		Map<String, List<String[]>> out = new LinkedHashMap<>();
+		for (Results<HtmlParserResult> result : results) {
+			for (String entityName : result.keySet()) {
+				out.computeIfAbsent(entityName, name -> new ArrayList<>()).addAll(result.get(entityName).getRows());
+			}
+		}
+		return out;
+	}
+
+	private Results<HtmlParserResult> parse(ReaderProvider input) throws InterruptedException {
+		if (!(input instanceof UrlReaderProvider)) {
+			return sharedParser.parse(input);
+		}
+
+		HostRateLimiter limiter;
+		synchronized (this) {
+			limiter = rateLimiter;
+		}
+
+		awaitRemoteInterval();
+		if (limiter == null) {
+			return sharedParser.parse(input);
+		}
+		try (HostRateLimiter.Permit permit = limiter.acquire(String.valueOf(((UrlReaderProvider) input).getUrl()))) {
+			return sharedParser.parse(input);
+		}
+	}
+
+	private void awaitRemoteInterval() throws InterruptedException {
+		long wait;
+		synchronized (this) {
+			long now = System.currentTimeMillis();
+			long start = Math.max(now, nextRequestTime);
+			nextRequestTime = start + remoteInterval;
+			wait = start - now;
+		}
+		if (wait > 0) {
+			Thread.sleep(wait);
+		}
+	}
+
+	private Results<HtmlParserResult> getResult(Future<Results<HtmlParserResult>> result) {
+		try {
+			return result.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for parsing results", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException("Error parsing input", e.getCause());
+		}
+	}
+
+	/**
+	 * Stops all worker threads. Inputs still being processed are interrupted.
+	 */
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+
+	private static final class WorkerThreadFactory implements ThreadFactory {
+		private static final AtomicInteger poolCount = new AtomicInteger();
+
+		private final int pool = poolCount.incrementAndGet();
+		private final AtomicInteger threadCount = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "html-parser-" + pool + "-worker-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
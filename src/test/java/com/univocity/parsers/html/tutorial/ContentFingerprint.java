@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.tutorial;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+
+/**
+ * Computes 64-bit fingerprints of page contents, to tell whether two pages are identical without comparing them.
+ *
+ * The hash reads 8 bytes at a time and mixes them with the multiply and rotate steps of xxHash64, which makes it
+ * fast enough to fingerprint every page of a crawl. Two different pages get the same fingerprint with a probability
+ * of about 1 in 2<sup>64</sup>, which is negligible for the number of pages a crawl deals with. It is not a
+ * cryptographic hash: don't use it where collisions could be forged.
+ *
+ * Files are hashed straight from a memory mapping, without copying their bytes. Text is hashed as UTF-8, so a page
+ * and the same page saved to disk in UTF-8 produce the same fingerprint.
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+public final class ContentFingerprint {
+
+	private static final long PRIME_1 = 0x9E3779B185EBCA87L;
+	private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+	private static final long PRIME_3 = 0x165667B19E3779F9L;
+	private static final long PRIME_4 = 0x85EBCA77C2B2AE63L;
+	private static final long PRIME_5 = 0x27D4EB2F165667C5L;
+
+	private ContentFingerprint() {
+
+	}
+
+	/**
+	 * Computes the fingerprint of some bytes
+	 *
+	 * @param bytes the bytes to hash
+	 *
+	 * @return the 64-bit fingerprint
+	 */
+	public static long of(byte[] bytes) {
+		return of(ByteBuffer.wrap(bytes));
+	}
+
+	/**
+	 * Computes the fingerprint of some text, encoded as UTF-8
+	 *
+	 * @param text the text to hash
+	 *
+	 * @return the 64-bit fingerprint
+	 */
+	public static long of(CharSequence text) {
+		return of(StandardCharsets.UTF_8.encode(CharBuffer.wrap(text)));
+	}
+
+	/**
+	 * Computes the fingerprint of the contents of a file
+	 *
+	 * @param file the file to hash
+	 *
+	 * @return the 64-bit fingerprint
+	 */
+	public static long of(File file) {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size == 0) {
+				return of(new byte[0]);
+			}
+			return of(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to read file '" + file.getAbsolutePath() + "'", e);
+		}
+	}
+
+	/**
+	 * Computes the fingerprint of the remaining bytes of a buffer. The position of the given buffer is not modified.
+	 *
+	 * @param buffer the bytes to hash
+	 *
+	 * @return the 64-bit fingerprint
+	 */
+	public static long of(ByteBuffer buffer) {
+		ByteBuffer in = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		long length = in.remaining();
+
+		long hash = PRIME_5 + length;
+		while (in.remaining() >= 8) {
+			long k = in.getLong();
+			k *= PRIME_2;
+			k = Long.rotateLeft(k, 31);
+			k *= PRIME_1;
+			hash ^= k;
+			hash = Long.rotateLeft(hash, 27) * PRIME_1 + PRIME_4;
+		}
+		if (in.remaining() >= 4) {
+			hash ^= (in.getInt() & 0xFFFFFFFFL) * PRIME_1;
+			hash = Long.rotateLeft(hash, 23) * PRIME_2 + PRIME_3;
+		}
+		while (in.hasRemaining()) {
+			hash ^= (in.get() & 0xFF) * PRIME_5;
+			hash = Long.rotateLeft(hash, 11) * PRIME_1;
+		}
+
+		hash ^= hash >>> 33;
+		hash *= PRIME_2;
+		hash ^= hash >>> 29;
+		hash *= PRIME_3;
+		hash ^= hash >>> 32;
+		return hash;
+	}
+
+	/**
+	 * Formats a fingerprint as a 16 digit hexadecimal string
+	 *
+	 * @param fingerprint the fingerprint to format
+	 *
+	 * @return the hexadecimal representation of the fingerprint
+	 */
+	public static String toHex(long fingerprint) {
+		String hex = Long.toHexString(fingerprint);
+		return "0000000000000000".substring(hex.length()) + hex;
+	}
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.tutorial;
+
+import com.univocity.api.entity.html.*;
+import com.univocity.api.net.*;
+import com.univocity.parsers.remote.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Keeps track of the pages visited by a crawl, so the same page is not requested or processed twice.
+ *
+ * Pagination can loop: some servers answer with the first page of results again when the request for the next page
+ * is not exactly what they expect (see the notes about the {@code btnSearch} parameters in
+ * {@link TutorialAspNet}), and the last page sometimes links back to the first. Wrap the pagination handler with
+ * {@link #paginate(NextInputHandler)} and the paginator stops as soon as:
+ *
+ * <ul>
+ * <li>the page just parsed has the same contents as a page visited before, or</li>
+ * <li>the next page would be requested from a URL visited before.</li>
+ * </ul>
+ *
+ * Contents are compared by their 64-bit {@link ContentFingerprint}. URLs are compared after normalization (lower case
+ * host, no default port or fragment, sorted query parameters), so {@code /list?a=1&b=2} and {@code /list?b=2&a=1#top}
+ * are the same page. Only {@code GET} requests are compared by URL: ASP.NET pages and other forms post every page to
+ * the same address, so their pages are compared by content only.
+ *
+ * The paginator has no way to know the contents of a page before parsing it, so a page with repeated contents is
+ * parsed once before pagination stops. Enable downloads with {@code setDownloadContentDirectory()} to have the
+ * contents of each page read from the stored copy instead of the network.
+ *
+ * Different listing pages often link to the same detail page. Give the handler returned by
+ * {@link #followLinks(NextInputHandler)} to a {@link HtmlLinkFollower} to visit each linked page only once. Links to
+ * pages visited before are skipped, and the value of the followed field is kept in the rows of the page that links
+ * to them:
+ *
+ * <pre>{@code
+ * HtmlLinkFollower details = houses.addField("detailsLink").match("a").getAttribute("href").followLink();
+ * details.setLinkFollowingHandler(deduplicator.followLinks(null));
+ * }</pre>
+ *
+ * The fields of a linked page are only collected into the row that followed the link first. Use
+ * {@link #fillSkippedLinks(HtmlParserResult, String, String...)} to get rows where every row that links to the same
+ * page has its values.
+ *
+ * Within a crawl, the fingerprints of visited URLs and pages are kept exactly. To stop at the pages whose contents
+ * didn't change since a previous run, create the deduplicator with a file and call {@link #save()} when the crawl
+ * ends: the fingerprints of the contents of the pages are stored in a compact {@link FingerprintBloomFilter}, and the
+ * next run stops paginating after a page found in it. This suits listings where new entries are added to the first
+ * pages: the pages that changed are crawled again, up to the first page that is the same as in the previous run.
+ * URLs are not stored, as the contents found at the same URL change between runs. A Bloom filter can report a page
+ * that was never seen as seen with the configured false positive rate, so keep the rate low when a missed page is a
+ * problem.
+ *
+ * This class is thread-safe.
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+public class CrawlDeduplicator {
+
+	private final Set<Long> urls = ConcurrentHashMap.newKeySet();
+	private final Set<Long> contents = ConcurrentHashMap.newKeySet();
+
+	private final File file;
+	private final FingerprintBloomFilter previousRuns;
+
+	private final AtomicLong repeatedUrls = new AtomicLong();
+	private final AtomicLong repeatedContents = new AtomicLong();
+	private final AtomicLong unchangedPages = new AtomicLong();
+
+	/**
+	 * Creates a deduplicator for a single crawl. Nothing is kept after the crawl ends.
+	 */
+	public CrawlDeduplicator() {
+		this.file = null;
+		this.previousRuns = null;
+	}
+
+	/**
+	 * Creates a deduplicator that also stops at pages whose contents were seen by previous runs. The fingerprints of
+	 * previous runs are loaded from the given file, if it exists.
+	 *
+	 * @param file              the file with the fingerprints of previous runs. Updated by {@link #save()}.
+	 * @param expectedPages     the number of distinct page contents expected over all runs. Ignored if the file
+	 *                          exists.
+	 * @param falsePositiveRate the probability of skipping a page that was never visited. Ignored if the file exists.
+	 */
+	public CrawlDeduplicator(File file, long expectedPages, double falsePositiveRate) {
+		this.file = file;
+		this.previousRuns = file.exists() ? FingerprintBloomFilter.readFrom(file) : new FingerprintBloomFilter(expectedPages, falsePositiveRate);
+	}
+
+	/**
+	 * Wraps a pagination handler so that pagination stops when a page repeats.
+	 *
+	 * @param handler the pagination handler to execute before checking the URL of the next page. It can modify the
+	 *                next request as usual. Can be {@code null}.
+	 *
+	 * @return a pagination handler that stops the paginator on repeated pages.
+	 */
+	public NextInputHandler<HtmlPaginationContext> paginate(NextInputHandler<HtmlPaginationContext> handler) {
+		return new NextInputHandler<HtmlPaginationContext>() {
+			@Override
+			public void prepareNextCall(HtmlPaginationContext context) {
+				if (!addContent(context.getCurrentResponse().getContent())) {
+					context.stop();
+					return;
+				}
+				if (handler != null) {
+					handler.prepareNextCall(context);
+				}
+
+				UrlReaderProvider next = context.getNextRequest();
+				if (next != null && next.getRequest().getHttpMethodType() == HttpMethodType.GET && !addUrl(String.valueOf(next.getUrl()))) {
+					context.stop();
+				}
+			}
+		};
+	}
+
+	/**
+	 * Wraps a link following handler so that links to pages visited before are not followed.
+	 *
+	 * @param handler the link following handler to execute before checking the URL of the linked page. It can modify
+	 *                the request as usual. Can be {@code null}.
+	 *
+	 * @return a link following handler that skips links to visited pages.
+	 */
+	public NextInputHandler<HtmlLinkFollowingContext> followLinks(NextInputHandler<HtmlLinkFollowingContext> handler) {
+		return new NextInputHandler<HtmlLinkFollowingContext>() {
+			@Override
+			public void prepareNextCall(HtmlLinkFollowingContext context) {
+				if (handler != null) {
+					handler.prepareNextCall(context);
+				}
+
+				UrlReaderProvider next = context.getNextRequest();
+				if (next != null && next.getRequest().getHttpMethodType() == HttpMethodType.GET && !addUrl(String.valueOf(next.getUrl()))) {
+					context.skip();
+				}
+			}
+		};
+	}
+
+	/**
+	 * Returns copies of the rows of a result, where the rows whose link was skipped by {@link #followLinks} get the
+	 * values collected from the linked page by the row that followed the same link. The rows of the result are not
+	 * modified.
+	 *
+	 * Links are compared after {@link Urls#normalize(String) normalization}.
+	 *
+	 * @param result       the result with the rows of the page that has the links.
+	 * @param linkField    the field whose link was followed.
+	 * @param linkedFields the fields collected from the linked pages.
+	 *
+	 * @return the rows of the result, with the values of the linked fields filled in.
+	 */
+	public static List<String[]> fillSkippedLinks(HtmlParserResult result, String linkField, String... linkedFields) {
+		List<String> headers = Arrays.asList(result.getHeaders());
+		int link = indexOf(headers, linkField);
+		int[] linked = new int[linkedFields.length];
+		for (int i = 0; i < linkedFields.length; i++) {
+			linked[i] = indexOf(headers, linkedFields[i]);
+		}
+
+		// the values of the first row that followed each link.
+		Map<String, String[]> linkedValues = new HashMap<>();
+		for (String[] row : result.getRows()) {
+			if (row[link] != null && hasLinkedValues(row, linked)) {
+				linkedValues.putIfAbsent(Urls.normalize(row[link]), row);
+			}
+		}
+
+		List<String[]> out = new ArrayList<>(result.getRows().size());
+		for (String[] row : result.getRows()) {
+			String[] copy = row.clone();
+			String[] source = row[link] == null || hasLinkedValues(row, linked) ? null : linkedValues.get(Urls.normalize(row[link]));
+			if (source != null) {
+				for (int column : linked) {
+					copy[column] = source[column];
+				}
+			}
+			out.add(copy);
+		}
+		return out;
+	}
+
+	private static int indexOf(List<String> headers, String field) {
+		int index = headers.indexOf(field);
+		if (index == -1) {
+			throw new IllegalArgumentException("Field '" + field + "' not found. Available fields: " + headers);
+		}
+		return index;
+	}
+
+	private static boolean hasLinkedValues(String[] row, int[] linked) {
+		for (int column : linked) {
+			if (row[column] != null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Registers a visit to a URL during the current crawl. Call this with the URL of the first page of a crawl, as
+	 * that page is requested directly by the parser and not by the paginator.
+	 *
+	 * @param url the URL visited
+	 *
+	 * @return {@code true} if the URL was not visited before by this crawl, {@code false} if it was.
+	 */
+	public boolean addUrl(String url) {
+		if (urls.add(ContentFingerprint.of(Urls.normalize(url)))) {
+			return true;
+		}
+		repeatedUrls.incrementAndGet();
+		return false;
+	}
+
+	/**
+	 * Registers the contents of a page
+	 *
+	 * @param content the contents of the page
+	 *
+	 * @return {@code true} if no page with the same contents was seen before by this crawl or by a previous run,
+	 * {@code false} otherwise.
+	 */
+	public boolean addContent(CharSequence content) {
+		if (content == null) {
+			return true;
+		}
+		long fingerprint = ContentFingerprint.of(content);
+		if (!contents.add(fingerprint)) {
+			repeatedContents.incrementAndGet();
+			return false;
+		}
+		if (previousRuns != null && !previousRuns.add(fingerprint)) {
+			unchangedPages.incrementAndGet();
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the number of requests to URLs that were visited before
+	 *
+	 * @return how many times a repeated URL was found.
+	 */
+	public long getRepeatedUrlCount() {
+		return repeatedUrls.get();
+	}
+
+	/**
+	 * Returns the number of pages whose contents were seen before by this crawl
+	 *
+	 * @return how many times a page with repeated contents was found.
+	 */
+	public long getRepeatedContentCount() {
+		return repeatedContents.get();
+	}
+
+	/**
+	 * Returns the number of pages whose contents were seen by a previous run, and not before by this crawl
+	 *
+	 * @return how many pages didn't change since a previous run.
+	 */
+	public long getUnchangedPageCount() {
+		return unchangedPages.get();
+	}
+
+	/**
+	 * Stores the fingerprints of the contents of all pages seen so far, including the ones of previous runs, in the
+	 * file given to the constructor. Visited URLs are not stored.
+	 */
+	public void save() {
+		if (file == null) {
+			throw new IllegalStateException("No file to save fingerprints into. Use the constructor that takes a file.");
+		}
+		previousRuns.writeTo(file);
+	}
+}
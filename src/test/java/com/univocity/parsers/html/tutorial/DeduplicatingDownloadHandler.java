@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.tutorial;
+
+import com.univocity.api.net.*;
+import com.univocity.parsers.remote.*;
+
+import java.io.*;
+import java.net.*;
+import java.nio.file.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+/**
+ * A {@link DownloadHandler} that lets each resource be downloaded only once, no matter how many pages reference it.
+ *
+ * Pages of the same site usually share images, style sheets and scripts. When pages are fetched in parallel (e.g.
+ * with a {@link ConcurrentHtmlParser}) and all of them store resources in the same
+ * {@code FetchOptions.setSharedResourceDir()}, two threads could download the same logo at once. Give the same
+ * instance of this handler to the {@code FetchOptions} of every parser: the first page to request a resource
+ * downloads it, and requests for the same resource from any other page wait until that download completes.
+ *
+ * To know when a download completes, this handler downloads each resource itself, with a plain {@code GET} request
+ * to the URL requested by the page, into the file the page links to, and skips the download of the parser. The file
+ * is only replaced once the resource has been completely downloaded. These requests don't use the HTTP settings of
+ * the parser: headers, cookies, proxy and timeouts configured for the parser are not applied, and the defaults of
+ * {@link URLConnection} are used instead. Don't use this handler for resources that can only be downloaded with those
+ * settings.
+ *
+ * Resource URLs are compared after {@link Urls#normalize(String) normalization}, so
+ * {@code http://Example.com:80/logo.png} and {@code http://example.com/logo.png} are the same resource. The normalized
+ * URL is only used for the comparison: resources are downloaded from the URL exactly as requested.
+ *
+ * This class is thread-safe.
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+public class DeduplicatingDownloadHandler implements DownloadHandler {
+
+	private final Predicate<DownloadContext> filter;
+	private final ConcurrentHashMap<String, CompletableFuture<Void>> requested = new ConcurrentHashMap<>();
+	private final AtomicLong duplicates = new AtomicLong();
+
+	/**
+	 * Creates a handler that downloads every resource once
+	 */
+	public DeduplicatingDownloadHandler() {
+		this(null);
+	}
+
+	/**
+	 * Creates a handler that consults a filter on the first request of each resource.
+	 *
+	 * @param filter decides whether a resource that was not requested before should be downloaded. Resources rejected
+	 *               by the filter are not downloaded for any page. Can be {@code null}.
+	 */
+	public DeduplicatingDownloadHandler(Predicate<DownloadContext> filter) {
+		this.filter = filter;
+	}
+
+	@Override
+	public void nextDownload(DownloadContext context) {
+		// the download is performed here, or was performed by the page that requested the resource first.
+		context.skipDownload();
+
+		String url = String.valueOf(context.downloadUrl());
+		String key = Urls.normalize(url);
+		CompletableFuture<Void> download = new CompletableFuture<>();
+		CompletableFuture<Void> running = requested.putIfAbsent(key, download);
+		if (running != null) {
+			duplicates.incrementAndGet();
+			awaitDownload(running);
+			return;
+		}
+
+		try {
+			if (filter == null || filter.test(context)) {
+				File target = new File(context.parentHtmlFile().getAbsoluteFile().getParentFile(), context.targetRelativePath());
+				download(url, target);
+			}
+			download.complete(null);
+		} catch (RuntimeException e) {
+			// lets the next page that requests the resource try again.
+			requested.remove(key, download);
+			download.completeExceptionally(e);
+			throw e;
+		}
+	}
+
+	private void download(String url, File target) {
+		try {
+			Files.createDirectories(target.getParentFile().toPath());
+			Path tmp = Files.createTempFile(target.getParentFile().toPath(), target.getName(), ".tmp");
+			try {
+				try (InputStream in = new URL(url).openStream()) {
+					Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+				}
+				Files.move(tmp, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			} finally {
+				Files.deleteIfExists(tmp);
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to download " + url + " into '" + target.getAbsolutePath() + "'", e);
+		}
+	}
+
+	private static void awaitDownload(CompletableFuture<Void> download) {
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					download.get();
+					return;
+				} catch (InterruptedException e) {
+					// the download belongs to another page, so it's not cancelled.
+					interrupted = true;
+				} catch (ExecutionException e) {
+					// the page that requested the resource first reports the failure.
+					return;
+				}
+			}
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of distinct resources requested so far, including the ones rejected by the filter and the ones
+	 * still being downloaded. Resources whose download failed are not counted.
+	 *
+	 * @return the number of distinct resources requested.
+	 */
+	public int getResourceCount() {
+		return requested.size();
+	}
+
+	/**
+	 * Returns the number of downloads skipped because the resource had already been requested by a page
+	 *
+	 * @return the number of duplicate downloads avoided.
+	 */
+	public long getDuplicateCount() {
+		return duplicates.get();
+	}
+}
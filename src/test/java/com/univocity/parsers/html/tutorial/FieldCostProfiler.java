@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.tutorial;
+
+import com.univocity.api.entity.html.*;
+import com.univocity.api.io.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * Measures how much each field definition costs to evaluate, to find out which matching rules dominate the time
+ * taken to parse a document. A rule such as {@code getTextAbove()} or {@code downToFooter("td")} can be much more
+ * expensive than a plain {@code match("td")}, and it's hard to tell which one is the culprit by looking at the
+ * configuration.
+ *
+ * Each field is given to the profiler as a function that adds it to an entity, with the same rules used to configure
+ * the parser. The profiler parses the input with an entity list that only has that field, several times, and records
+ * the median time taken along with the number of elements matched. Fields are ranked from the most to the least
+ * expensive, and the report can be written as CSV to be tracked over time.
+ *
+ * Every parse walks the whole document, whatever the field. To isolate the cost of the rules, the profiler also
+ * measures a baseline parse with a single field that matches no element, and subtracts its median from the median of
+ * each field. The share of a field is its cost over the cost of all profiled fields.
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+public class FieldCostProfiler {
+
+	private final Supplier<? extends ReaderProvider> input;
+	private final List<FieldDefinitionEntry> fields = new ArrayList<>();
+	private int warmupIterations = 5;
+	private int iterations = 20;
+	private long baselineNanos;
+
+	/**
+	 * Creates a profiler for the given input
+	 *
+	 * @param input produces the input to parse. Called once for every parse.
+	 */
+	public FieldCostProfiler(Supplier<? extends ReaderProvider> input) {
+		this.input = input;
+	}
+
+	/**
+	 * Adds a field to be profiled
+	 *
+	 * @param entityName the name of the entity that has the field
+	 * @param fieldName  the name of the field
+	 * @param definition adds the field, with its matching rules, to the given entity.
+	 *
+	 * @return this profiler, to add more fields.
+	 */
+	public FieldCostProfiler addField(String entityName, String fieldName, Consumer<HtmlEntitySettings> definition) {
+		fields.add(new FieldDefinitionEntry(entityName, fieldName, definition));
+		return this;
+	}
+
+	/**
+	 * Defines how many times the input is parsed for each field
+	 *
+	 * @param warmupIterations number of parses whose time is discarded. Defaults to 5.
+	 * @param iterations       number of parses whose times are measured. Defaults to 20.
+	 */
+	public void setIterations(int warmupIterations, int iterations) {
+		if (warmupIterations < 0 || iterations < 1) {
+			throw new IllegalArgumentException("Invalid number of iterations: " + warmupIterations + " warmup, " + iterations + " measured");
+		}
+		this.warmupIterations = warmupIterations;
+		this.iterations = iterations;
+	}
+
+	/**
+	 * Parses the input for every field added to this profiler
+	 *
+	 * @return the cost of each field, from the most to the least expensive.
+	 */
+	public List<FieldCost> profile() {
+		// no document has this element, so the baseline only walks the document.
+		FieldDefinitionEntry baseline = new FieldDefinitionEntry("baseline", "baseline", e -> e.addField("baseline").match("no-such-element").getText());
+		baselineNanos = baseline.profile().nanos;
+
+		List<FieldCost> out = new ArrayList<>(fields.size());
+		long total = 0;
+		for (FieldDefinitionEntry field : fields) {
+			FieldCost cost = field.profile();
+			cost.costNanos = Math.max(0, cost.nanos - baselineNanos);
+			total += cost.costNanos;
+			out.add(cost);
+		}
+		for (FieldCost cost : out) {
+			cost.share = total == 0 ? 0.0 : (double) cost.costNanos / total;
+		}
+		out.sort((a, b) -> Long.compare(b.costNanos, a.costNanos));
+		return out;
+	}
+
+	/**
+	 * Returns the median time taken by the baseline parse of the last call to {@link #profile()}, with a single field
+	 * that matches nothing. This is the time taken to walk the document, which every field pays.
+	 *
+	 * @return the median baseline parsing time, in milliseconds.
+	 */
+	public double getBaselineMillis() {
+		return baselineNanos / 1_000_000.0;
+	}
+
+	/**
+	 * Writes the costs returned by {@link #profile()} as CSV, with headers
+	 * {@code rank,entity,field,median_ms,cost_ms,share,matches}.
+	 *
+	 * @param costs the field costs
+	 * @param out   where to write the report
+	 *
+	 * @throws IOException if the report can't be written
+	 */
+	public static void writeCsv(List<FieldCost> costs, Appendable out) throws IOException {
+		out.append("rank,entity,field,median_ms,cost_ms,share,matches\n");
+		int rank = 1;
+		for (FieldCost cost : costs) {
+			out.append(String.valueOf(rank++)).append(',')
+					.append(csv(cost.entityName)).append(',')
+					.append(csv(cost.fieldName)).append(',')
+					.append(String.format(Locale.ROOT, "%.3f", cost.getMedianMillis())).append(',')
+					.append(String.format(Locale.ROOT, "%.3f", cost.getCostMillis())).append(',')
+					.append(String.format(Locale.ROOT, "%.3f", cost.share)).append(',')
+					.append(String.valueOf(cost.matches)).append('\n');
+		}
+	}
+
+	private static String csv(String value) {
+		if (value.indexOf(',') == -1 && value.indexOf('"') == -1) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+
+	private final class FieldDefinitionEntry {
+		final String entityName;
+		final String fieldName;
+		final Consumer<HtmlEntitySettings> definition;
+
+		FieldDefinitionEntry(String entityName, String fieldName, Consumer<HtmlEntitySettings> definition) {
+			this.entityName = entityName;
+			this.fieldName = fieldName;
+			this.definition = definition;
+		}
+
+		FieldCost profile() {
+			HtmlEntityList entityList = new HtmlEntityList();
+			HtmlEntitySettings entity = entityList.configureEntity(entityName);
+			definition.accept(entity);
+
+			ParserMetrics metrics = new ParserMetrics();
+			entity.setListener(metrics);
+
+			HtmlParser parser = new HtmlParser(entityList);
+			for (int i = 0; i < warmupIterations; i++) {
+				parser.parse(input.get());
+			}
+			metrics.reset();
+
+			long[] times = new long[iterations];
+			for (int i = 0; i < iterations; i++) {
+				ReaderProvider reader = input.get();
+				long start = System.nanoTime();
+				parser.parse(reader);
+				times[i] = System.nanoTime() - start;
+			}
+			Arrays.sort(times);
+
+			return new FieldCost(entityName, fieldName, times[times.length / 2], metrics.getMatches(fieldName) / iterations);
+		}
+	}
+
+	/**
+	 * The cost of a field measured by a {@link FieldCostProfiler}
+	 */
+	public static final class FieldCost {
+		private final String entityName;
+		private final String fieldName;
+		private final long nanos;
+		private final long matches;
+		private long costNanos;
+		private double share;
+
+		FieldCost(String entityName, String fieldName, long nanos, long matches) {
+			this.entityName = entityName;
+			this.fieldName = fieldName;
+			this.nanos = nanos;
+			this.matches = matches;
+		}
+
+		/**
+		 * Returns the name of the entity with the field
+		 *
+		 * @return the entity name
+		 */
+		public String getEntityName() {
+			return entityName;
+		}
+
+		/**
+		 * Returns the name of the field
+		 *
+		 * @return the field name
+		 */
+		public String getFieldName() {
+			return fieldName;
+		}
+
+		/**
+		 * Returns the median time taken to parse the input with this field alone
+		 *
+		 * @return the median parsing time, in milliseconds.
+		 */
+		public double getMedianMillis() {
+			return nanos / 1_000_000.0;
+		}
+
+		/**
+		 * Returns the median time taken by this field, excluding the time taken to walk the document measured by the
+		 * baseline parse.
+		 *
+		 * @return the median time taken by the rules of this field, in milliseconds.
+		 */
+		public double getCostMillis() {
+			return costNanos / 1_000_000.0;
+		}
+
+		/**
+		 * Returns the number of elements matched for this field in each parse
+		 *
+		 * @return the number of matches per parse
+		 */
+		public long getMatches() {
+			return matches;
+		}
+
+		/**
+		 * Returns the fraction of the cost of all profiled fields taken by this field, excluding the time taken to walk
+		 * the document.
+		 *
+		 * @return a value between {@code 0.0} and {@code 1.0}
+		 */
+		public double getShare() {
+			return share;
+		}
+
+		@Override
+		public String toString() {
+			return entityName + "." + fieldName + ": " + String.format(Locale.ROOT, "%.3f", getCostMillis()) + "ms, " + matches + " matches";
+		}
+	}
+}
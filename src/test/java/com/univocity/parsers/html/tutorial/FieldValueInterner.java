@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.tutorial;
+
+import com.univocity.api.entity.html.*;
+
+import java.util.*;
+
+/**
+ * Replaces equal values of a field by a single {@code String} instance. Persistent fields, such as the
+ * {@code petrol_station_name} of each fuel price, and fields with a fixed value, such as the address {@code type} of a
+ * group, repeat the same value in every row: interning the rows of a large result lets all these copies be garbage
+ * collected.
+ *
+ * Each field has its own table of values, bounded to a maximum size. When a table is full, the value used least
+ * recently is discarded, so fields with many distinct values (such as a description) don't keep growing the table.
+ *
+ * The number of values looked up and the number of duplicates replaced are recorded per field, to show whether
+ * interning a field is worth it. The totals can also be reported to a {@link ParserMetrics}, to be watched together
+ * with the other metrics of a crawl (e.g. through JMX).
+ *
+ * This class is not thread-safe.
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+public class FieldValueInterner {
+
+	private final int maxValuesPerField;
+	private final ParserMetrics metrics;
+	private final Map<String, FieldTable> tables = new LinkedHashMap<>();
+
+	/**
+	 * Creates an interner that keeps up to 1024 values per field
+	 */
+	public FieldValueInterner() {
+		this(1024);
+	}
+
+	/**
+	 * Creates an interner
+	 *
+	 * @param maxValuesPerField the maximum number of distinct values kept for each field.
+	 */
+	public FieldValueInterner(int maxValuesPerField) {
+		this(maxValuesPerField, null);
+	}
+
+	/**
+	 * Creates an interner that reports every lookup to the given metrics
+	 *
+	 * @param maxValuesPerField the maximum number of distinct values kept for each field.
+	 * @param metrics           the metrics that count the values interned and the duplicates replaced. Can be
+	 *                          {@code null}.
+	 */
+	public FieldValueInterner(int maxValuesPerField, ParserMetrics metrics) {
+		if (maxValuesPerField < 1) {
+			throw new IllegalArgumentException("Maximum number of values per field must be at least 1. Got " + maxValuesPerField);
+		}
+		this.maxValuesPerField = maxValuesPerField;
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Returns the instance kept for a value of a field, storing the given value if there's none.
+	 *
+	 * @param fieldName the name of the field
+	 * @param value     the value of the field
+	 *
+	 * @return an equal instance seen earlier for the same field, or the given value. {@code null} is returned as is.
+	 */
+	public String intern(String fieldName, String value) {
+		if (value == null) {
+			return null;
+		}
+		FieldTable table = tables.get(fieldName);
+		if (table == null) {
+			table = new FieldTable(maxValuesPerField);
+			tables.put(fieldName, table);
+		}
+		long hits = table.hits;
+		String out = table.intern(value);
+		if (metrics != null) {
+			metrics.valueInterned(table.hits != hits);
+		}
+		return out;
+	}
+
+	/**
+	 * Interns every value of a row, in place
+	 *
+	 * @param headers the field names of the row
+	 * @param row     the values of the row, replaced by the instances kept for each field.
+	 */
+	public void internRow(String[] headers, String[] row) {
+		int length = Math.min(headers.length, row.length);
+		for (int i = 0; i < length; i++) {
+			row[i] = intern(headers[i], row[i]);
+		}
+	}
+
+	/**
+	 * Returns copies of the rows of a result, with their values interned. The result itself is not modified: keep the
+	 * returned rows and discard the result to release the duplicate values.
+	 *
+	 * @param result the result of an entity
+	 *
+	 * @return new rows with the values of the result, interned.
+	 */
+	public List<String[]> internRows(HtmlParserResult result) {
+		String[] headers = result.getHeaders();
+		List<String[]> rows = result.getRows();
+		List<String[]> out = new ArrayList<>(rows.size());
+		for (String[] row : rows) {
+			String[] copy = row.clone();
+			internRow(headers, copy);
+			out.add(copy);
+		}
+		return out;
+	}
+
+	/**
+	 * Returns the names of the fields whose values were interned, in the order they were first seen.
+	 *
+	 * @return the interned field names
+	 */
+	public Set<String> getFieldNames() {
+		return Collections.unmodifiableSet(tables.keySet());
+	}
+
+	/**
+	 * Returns how many values of a field were looked up
+	 *
+	 * @param fieldName the name of the field
+	 *
+	 * @return the number of non-null values given to {@link #intern(String, String)} for the field.
+	 */
+	public long getLookups(String fieldName) {
+		FieldTable table = tables.get(fieldName);
+		return table == null ? 0 : table.lookups;
+	}
+
+	/**
+	 * Returns how many values of a field were replaced by an instance seen earlier
+	 *
+	 * @param fieldName the name of the field
+	 *
+	 * @return the number of duplicates found for the field.
+	 */
+	public long getHits(String fieldName) {
+		FieldTable table = tables.get(fieldName);
+		return table == null ? 0 : table.hits;
+	}
+
+	/**
+	 * Returns how many values of a field were stored. Matches the number of distinct values of the field unless
+	 * values had to be discarded to respect the maximum table size.
+	 *
+	 * @param fieldName the name of the field
+	 *
+	 * @return the number of lookups that didn't find an equal value.
+	 */
+	public long getMisses(String fieldName) {
+		return getLookups(fieldName) - getHits(fieldName);
+	}
+
+	/**
+	 * Returns the total number of values looked up across all fields
+	 *
+	 * @return the number of non-null values given to {@link #intern(String, String)}.
+	 */
+	public long getLookups() {
+		long out = 0;
+		for (FieldTable table : tables.values()) {
+			out += table.lookups;
+		}
+		return out;
+	}
+
+	/**
+	 * Returns the total number of duplicates replaced across all fields
+	 *
+	 * @return the number of lookups that found an equal value.
+	 */
+	public long getHits() {
+		long out = 0;
+		for (FieldTable table : tables.values()) {
+			out += table.hits;
+		}
+		return out;
+	}
+
+	/**
+	 * Returns the fraction of looked up values that were duplicates
+	 *
+	 * @return a value between {@code 0.0} (no duplicates) and {@code 1.0}.
+	 */
+	public double getDeduplicationRatio() {
+		long lookups = getLookups();
+		return lookups == 0 ? 0.0 : (double) getHits() / lookups;
+	}
+
+	/**
+	 * Discards all stored values and statistics
+	 */
+	public void clear() {
+		tables.clear();
+	}
+
+	@Override
+	public String toString() {
+		return "FieldValueInterner{lookups=" + getLookups() + ", hits=" + getHits() + ", fields=" + tables.size() + "}";
+	}
+
+	private static final class FieldTable extends LinkedHashMap<String, String> {
+		private static final long serialVersionUID = 1L;
+
+		private final int maxSize;
+		long lookups;
+		long hits;
+
+		FieldTable(int maxSize) {
+			super(16, 0.75f, true);
+			this.maxSize = maxSize;
+		}
+
+		String intern(String value) {
+			lookups++;
+			String existing = get(value);
+			if (existing != null) {
+				hits++;
+				return existing;
+			}
+			put(value, value);
+			return value;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+			return size() > maxSize;
+		}
+	}
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.tutorial;
+
+import java.io.*;
+import java.nio.file.*;
+
+/**
+ * A Bloom filter of 64-bit fingerprints, such as the ones computed by {@link ContentFingerprint}. It answers whether a
+ * fingerprint was added before using a fixed amount of memory: about 1.2 bytes per entry for a 1% false positive
+ * rate, regardless of the size of the pages or URLs fingerprinted.
+ *
+ * A fingerprint that was added is always reported as present. A fingerprint that was never added is reported as
+ * present with the false positive rate given to the constructor, as long as no more than the expected number of
+ * entries is added.
+ *
+ * The filter can be written to a file and read back, so the fingerprints seen by one run are available to the next.
+ *
+ * This class is thread-safe.
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+public class FingerprintBloomFilter {
+
+	private static final int MAGIC = 0x55424631; // "UBF1"
+
+	private final long[] bits;
+	private final long bitCount;
+	private final int hashCount;
+
+	/**
+	 * Creates an empty filter
+	 *
+	 * @param expectedEntries   the number of fingerprints expected to be added
+	 * @param falsePositiveRate the acceptable probability of reporting a fingerprint that was never added as present,
+	 *                          between 0 and 1 (exclusive).
+	 */
+	public FingerprintBloomFilter(long expectedEntries, double falsePositiveRate) {
+		if (expectedEntries < 1) {
+			throw new IllegalArgumentException("Expected number of entries must be at least 1. Got " + expectedEntries);
+		}
+		if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+			throw new IllegalArgumentException("False positive rate must be between 0 and 1. Got " + falsePositiveRate);
+		}
+		double ln2 = Math.log(2);
+		long m = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (ln2 * ln2));
+		this.bits = new long[(int) Math.max(1, (m + 63) >>> 6)];
+		this.bitCount = bits.length * 64L;
+		this.hashCount = Math.max(1, (int) Math.round((double) m / expectedEntries * ln2));
+	}
+
+	private FingerprintBloomFilter(long[] bits, int hashCount) {
+		this.bits = bits;
+		this.bitCount = bits.length * 64L;
+		this.hashCount = hashCount;
+	}
+
+	/**
+	 * Adds a fingerprint to this filter
+	 *
+	 * @param fingerprint the fingerprint to add
+	 *
+	 * @return {@code true} if the fingerprint was not present before, {@code false} if it was (or if it is a false
+	 * positive).
+	 */
+	public synchronized boolean add(long fingerprint) {
+		boolean added = false;
+		long h1 = (int) fingerprint;
+		long h2 = (int) (fingerprint >>> 32);
+		for (int i = 0; i < hashCount; i++) {
+			long bit = index(h1 + i * h2);
+			long mask = 1L << bit;
+			int word = (int) (bit >>> 6);
+			if ((bits[word] & mask) == 0) {
+				bits[word] |= mask;
+				added = true;
+			}
+		}
+		return added;
+	}
+
+	/**
+	 * Tests whether a fingerprint may have been added to this filter
+	 *
+	 * @param fingerprint the fingerprint to test
+	 *
+	 * @return {@code false} if the fingerprint was definitely never added, {@code true} if it probably was.
+	 */
+	public synchronized boolean mightContain(long fingerprint) {
+		long h1 = (int) fingerprint;
+		long h2 = (int) (fingerprint >>> 32);
+		for (int i = 0; i < hashCount; i++) {
+			long bit = index(h1 + i * h2);
+			if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// double hashing: the i-th probe is h1 + i * h2, taken from the two halves of the fingerprint.
+	private long index(long combined) {
+		return (combined & Long.MAX_VALUE) % bitCount;
+	}
+
+	/**
+	 * Returns the size of this filter
+	 *
+	 * @return the number of bits used by this filter.
+	 */
+	public long getBitCount() {
+		return bitCount;
+	}
+
+	/**
+	 * Returns how many bits are set for each fingerprint added
+	 *
+	 * @return the number of hash functions used by this filter.
+	 */
+	public int getHashCount() {
+		return hashCount;
+	}
+
+	/**
+	 * Writes this filter to a file. The file is replaced only after it has been completely written, so a run that
+	 * fails while saving doesn't lose the filter stored by the previous run.
+	 *
+	 * @param file the file to write
+	 */
+	public synchronized void writeTo(File file) {
+		File parent = file.getAbsoluteFile().getParentFile();
+		try {
+			if (parent != null) {
+				Files.createDirectories(parent.toPath());
+			}
+			Path tmp = Files.createTempFile(parent == null ? null : parent.toPath(), file.getName(), ".tmp");
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(hashCount);
+				out.writeInt(bits.length);
+				for (long word : bits) {
+					out.writeLong(word);
+				}
+			}
+			Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to write Bloom filter to '" + file.getAbsolutePath() + "'", e);
+		}
+	}
+
+	/**
+	 * Reads a filter previously written with {@link #writeTo(File)}
+	 *
+	 * @param file the file to read
+	 *
+	 * @return the filter stored in the file.
+	 */
+	public static FingerprintBloomFilter readFrom(File file) {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != MAGIC) {
+				throw new IllegalStateException("File '" + file.getAbsolutePath() + "' doesn't contain a Bloom filter");
+			}
+			int hashCount = in.readInt();
+			long[] bits = new long[in.readInt()];
+			for (int i = 0; i < bits.length; i++) {
+				bits[i] = in.readLong();
+			}
+			return new FingerprintBloomFilter(bits, hashCount);
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to read Bloom filter from '" + file.getAbsolutePath() + "'", e);
+		}
+	}
+}
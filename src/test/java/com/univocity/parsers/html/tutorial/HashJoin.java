@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.tutorial;
+
+import com.univocity.api.entity.html.*;
+import com.univocity.parsers.common.*;
+
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * Joins the rows of two entities by the values of their fields with the same name, like
+ * {@code Results.join("company", "address")} does, using a hash table built over the entity with fewer rows.
+ *
+ * Joining an entity with {@code L} rows to one with {@code R} rows takes {@code O(L + R + M)} time, where {@code M}
+ * is the number of matching row pairs, instead of the {@code O(L * R)} of comparing every pair of rows. Besides the
+ * output, memory grows with {@code O(L + R + M)}: the hash table holds the indexes of the {@code min(L, R)} rows it
+ * is built from, and the matches of every left row are kept in an array of right row indexes (plus a temporary
+ * array of {@code L} lists when the table is built from the left rows). The matches are computed once and kept until
+ * this object is discarded. Use {@link #forEachRow(Consumer)} to process joined rows without also keeping all of them
+ * in memory.
+ *
+ * Rows are produced in the order of the left entity. Each left row is followed by its matches in the order of the
+ * right entity. Left rows without a match are kept, with {@code null} in the fields of the right entity. Fields
+ * with a {@code null} value never match anything.
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+public class HashJoin {
+
+	private final List<String[]> leftRows;
+	private final List<String[]> rightRows;
+	private final int[] leftKey;
+	private final int[] rightKey;
+	private final int leftWidth;
+	private final int[] rightValues;
+	private final String[] headers;
+
+	private int[][] matches;
+
+	/**
+	 * Prepares a join between two entities of the same results
+	 *
+	 * @param results     the results of a parse
+	 * @param leftEntity  the name of the entity whose rows come first in the joined rows
+	 * @param rightEntity the name of the entity whose rows are matched against the left rows
+	 *
+	 * @return a join between the two entities
+	 */
+	public static HashJoin of(Results<HtmlParserResult> results, String leftEntity, String rightEntity) {
+		HtmlParserResult left = results.get(leftEntity);
+		if (left == null) {
+			throw new IllegalArgumentException("Unknown entity '" + leftEntity + "'");
+		}
+		HtmlParserResult right = results.get(rightEntity);
+		if (right == null) {
+			throw new IllegalArgumentException("Unknown entity '" + rightEntity + "'");
+		}
+		return new HashJoin(left, right);
+	}
+
+	/**
+	 * Prepares a join between the rows of two entities
+	 *
+	 * @param left  the entity whose rows come first in the joined rows
+	 * @param right the entity whose rows are matched against the left rows
+	 */
+	public HashJoin(HtmlParserResult left, HtmlParserResult right) {
+		this(left.getHeaders(), left.getRows(), right.getHeaders(), right.getRows());
+	}
+
+	/**
+	 * Prepares a join between two sets of rows
+	 *
+	 * @param leftHeaders  the field names of the left rows
+	 * @param leftRows     the rows that come first in the joined rows
+	 * @param rightHeaders the field names of the right rows
+	 * @param rightRows    the rows matched against the left rows
+	 */
+	public HashJoin(String[] leftHeaders, List<String[]> leftRows, String[] rightHeaders, List<String[]> rightRows) {
+		this.leftRows = leftRows;
+		this.rightRows = rightRows;
+		this.leftWidth = leftHeaders.length;
+
+		List<Integer> leftKey = new ArrayList<>();
+		List<Integer> rightKey = new ArrayList<>();
+		List<Integer> rightValues = new ArrayList<>();
+		List<String> headers = new ArrayList<>(Arrays.asList(leftHeaders));
+
+		List<String> leftNames = Arrays.asList(leftHeaders);
+		for (int i = 0; i < rightHeaders.length; i++) {
+			int leftIndex = leftNames.indexOf(rightHeaders[i]);
+			if (leftIndex == -1) {
+				rightValues.add(i);
+				headers.add(rightHeaders[i]);
+			} else {
+				leftKey.add(leftIndex);
+				rightKey.add(i);
+			}
+		}
+		if (leftKey.isEmpty()) {
+			throw new IllegalArgumentException("No fields with the same name to join. Left fields: " + leftNames + ", right fields: " + Arrays.toString(rightHeaders));
+		}
+
+		this.leftKey = toArray(leftKey);
+		this.rightKey = toArray(rightKey);
+		this.rightValues = toArray(rightValues);
+		this.headers = headers.toArray(new String[0]);
+	}
+
+	private static int[] toArray(List<Integer> list) {
+		int[] out = new int[list.size()];
+		for (int i = 0; i < out.length; i++) {
+			out[i] = list.get(i);
+		}
+		return out;
+	}
+
+	/**
+	 * Returns the field names of the joined rows: all fields of the left rows, followed by the fields of the right
+	 * rows that are not part of the join key.
+	 *
+	 * @return the headers of the joined rows
+	 */
+	public String[] getHeaders() {
+		return headers.clone();
+	}
+
+	/**
+	 * Joins the rows and collects them in a list
+	 *
+	 * @return the joined rows
+	 */
+	public List<String[]> getRows() {
+		List<String[]> out = new ArrayList<>(Math.max(leftRows.size(), rightRows.size()));
+		forEachRow(out::add);
+		return out;
+	}
+
+	/**
+	 * Joins the rows and hands each one to the given consumer as soon as it is produced.
+	 *
+	 * @param consumer receives the joined rows
+	 */
+	public void forEachRow(Consumer<String[]> consumer) {
+		int[][] matches = getMatches();
+		for (int i = 0; i < matches.length; i++) {
+			String[] left = leftRows.get(i);
+			int[] rightIndexes = matches[i];
+			if (rightIndexes.length == 0) {
+				consumer.accept(joinRow(left, null));
+			} else {
+				for (int rightIndex : rightIndexes) {
+					consumer.accept(joinRow(left, rightRows.get(rightIndex)));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Hands each left row to the given consumer, together with the right rows it matches, as
+	 * {@code Results.link()} does.
+	 *
+	 * @param consumer receives each left row and the list of right rows that match it. The list is empty if there
+	 *                 are no matches.
+	 */
+	public void forEachMatch(BiConsumer<String[], List<String[]>> consumer) {
+		int[][] matches = getMatches();
+		for (int i = 0; i < matches.length; i++) {
+			List<String[]> linked = new ArrayList<>(matches[i].length);
+			for (int rightIndex : matches[i]) {
+				linked.add(rightRows.get(rightIndex));
+			}
+			consumer.accept(leftRows.get(i), linked);
+		}
+	}
+
+	private String[] joinRow(String[] left, String[] right) {
+		String[] out = new String[headers.length];
+		System.arraycopy(left, 0, out, 0, Math.min(left.length, leftWidth));
+		if (right != null) {
+			for (int i = 0; i < rightValues.length; i++) {
+				out[leftWidth + i] = value(right, rightValues[i]);
+			}
+		}
+		return out;
+	}
+
+	private int[][] getMatches() {
+		if (matches == null) {
+			matches = rightRows.size() <= leftRows.size() ? buildRightProbeLeft() : buildLeftProbeRight();
+		}
+		return matches;
+	}
+
+	private int[][] buildRightProbeLeft() {
+		Map<Object, IntList> table = buildTable(rightRows, rightKey);
+		int[][] out = new int[leftRows.size()][];
+		for (int i = 0; i < out.length; i++) {
+			Object key = key(leftRows.get(i), leftKey);
+			IntList rightIndexes = key == null ? null : table.get(key);
+			out[i] = rightIndexes == null ? IntList.EMPTY : rightIndexes.toArray();
+		}
+		return out;
+	}
+
+	private int[][] buildLeftProbeRight() {
+		Map<Object, IntList> table = buildTable(leftRows, leftKey);
+		IntList[] found = new IntList[leftRows.size()];
+		for (int j = 0; j < rightRows.size(); j++) {
+			Object key = key(rightRows.get(j), rightKey);
+			IntList leftIndexes = key == null ? null : table.get(key);
+			if (leftIndexes != null) {
+				for (int k = 0; k < leftIndexes.size; k++) {
+					int i = leftIndexes.values[k];
+					if (found[i] == null) {
+						found[i] = new IntList();
+					}
+					found[i].add(j);
+				}
+			}
+		}
+
+		int[][] out = new int[found.length][];
+		for (int i = 0; i < out.length; i++) {
+			out[i] = found[i] == null ? IntList.EMPTY : found[i].toArray();
+		}
+		return out;
+	}
+
+	private static Map<Object, IntList> buildTable(List<String[]> rows, int[] keyIndexes) {
+		Map<Object, IntList> table = new HashMap<>(Math.max(16, (int) (rows.size() / 0.75f) + 1));
+		for (int i = 0; i < rows.size(); i++) {
+			Object key = key(rows.get(i), keyIndexes);
+			if (key != null) {
+				table.computeIfAbsent(key, k -> new IntList()).add(i);
+			}
+		}
+		return table;
+	}
+
+	/**
+	 * Returns the value of a single field key, or a {@link List} with the values of a composite key. Returns
+	 * {@code null} if any of the values is {@code null}.
+	 */
+	private static Object key(String[] row, int[] keyIndexes) {
+		if (keyIndexes.length == 1) {
+			return value(row, keyIndexes[0]);
+		}
+		String[] values = new String[keyIndexes.length];
+		for (int i = 0; i < keyIndexes.length; i++) {
+			values[i] = value(row, keyIndexes[i]);
+			if (values[i] == null) {
+				return null;
+			}
+		}
+		return Arrays.asList(values);
+	}
+
+	private static String value(String[] row, int index) {
+		return index < row.length ? row[index] : null;
+	}
+
+	private static final class IntList {
+		static final int[] EMPTY = new int[0];
+
+		int[] values = new int[2];
+		int size;
+
+		void add(int value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		int[] toArray() {
+			return Arrays.copyOf(values, size);
+		}
+	}
+}
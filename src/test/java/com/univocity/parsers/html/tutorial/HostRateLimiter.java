@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.tutorial;
+
+import com.univocity.api.entity.html.*;
+import com.univocity.api.entity.html.builders.*;
+import com.univocity.api.net.*;
+import com.univocity.parsers.remote.*;
+
+import java.net.*;
+import java.util.concurrent.*;
+
+/**
+ * Controls how often remote requests can be sent to each host, using one token bucket per host. Unlike
+ * {@code HtmlParserSettings.setRemoteInterval()}, requests to different hosts don't slow each other down, and a single
+ * instance can be shared by any number of parsers running in the same JVM.
+ *
+ * Each host can send a burst of requests at once, after which requests are spaced to keep up with the configured
+ * rate. The number of requests in flight for a host is also limited: a request only starts after a
+ * {@link Permit} is obtained, and it must be closed when the response has been processed.
+ *
+ * This class is thread-safe.
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+public class HostRateLimiter {
+
+	private final ConcurrentHashMap<String, Limits> hostLimits = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+	private final Limits defaultLimits;
+
+	/**
+	 * Creates a rate limiter applying the given limits to every host.
+	 *
+	 * @param requestsPerSecond the rate at which requests can be sent to a host.
+	 * @param burst             the number of requests that can be sent at once to a host that has been idle.
+	 * @param maxInFlight       the maximum number of requests being processed for a host at any given time.
+	 */
+	public HostRateLimiter(double requestsPerSecond, int burst, int maxInFlight) {
+		this.defaultLimits = new Limits(requestsPerSecond, burst, maxInFlight);
+	}
+
+	/**
+	 * Overrides the limits of a given host. Must be called before any request to the host is made.
+	 *
+	 * @param host              the host name, e.g. {@code "localhost"}
+	 * @param requestsPerSecond the rate at which requests can be sent to the host.
+	 * @param burst             the number of requests that can be sent at once when the host has been idle.
+	 * @param maxInFlight       the maximum number of requests being processed for the host at any given time.
+	 */
+	public void setHostLimits(String host, double requestsPerSecond, int burst, int maxInFlight) {
+		hostLimits.put(host.toLowerCase(), new Limits(requestsPerSecond, burst, maxInFlight));
+	}
+
+	/**
+	 * Blocks until a request can be sent to the host of the given URL.
+	 *
+	 * @param url the URL to be requested
+	 *
+	 * @return a permit that must be closed once the response is processed, so other requests to the same host can
+	 * proceed.
+	 *
+	 * @throws InterruptedException if the current thread is interrupted while waiting
+	 */
+	public Permit acquire(String url) throws InterruptedException {
+		Bucket bucket = getBucket(getHost(url));
+		bucket.inFlight.acquire();
+		boolean acquired = false;
+		try {
+			bucket.awaitToken();
+			acquired = true;
+		} finally {
+			if (!acquired) {
+				bucket.inFlight.release();
+			}
+		}
+		return new Permit(bucket);
+	}
+
+	/**
+	 * Wraps a pagination handler so that the paginator waits for the rate limits of the host of the next page.
+	 * The paginator doesn't tell when a response was received, so only the request rate is limited: the in-flight
+	 * limit is not enforced.
+	 *
+	 * Disable the global interval with {@code HtmlParserSettings.setRemoteInterval(0L)} when using this.
+	 *
+	 * @param handler the pagination handler to execute before waiting. Can be {@code null}.
+	 *
+	 * @return a pagination handler that respects the limits of this rate limiter.
+	 */
+	public NextInputHandler<HtmlPaginationContext> throttle(NextInputHandler<HtmlPaginationContext> handler) {
+		return new NextInputHandler<HtmlPaginationContext>() {
+			@Override
+			public void prepareNextCall(HtmlPaginationContext context) {
+				if (handler != null) {
+					handler.prepareNextCall(context);
+				}
+				UrlReaderProvider next = context.getNextRequest();
+				if (next != null) {
+					try {
+						acquire(String.valueOf(next.getUrl())).close();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						context.stop();
+					}
+				}
+			}
+		};
+	}
+
+	private Bucket getBucket(String host) {
+		Bucket bucket = buckets.get(host);
+		if (bucket == null) {
+			Limits limits = hostLimits.getOrDefault(host, defaultLimits);
+			bucket = new Bucket(limits);
+			Bucket previous = buckets.putIfAbsent(host, bucket);
+			if (previous != null) {
+				bucket = previous;
+			}
+		}
+		return bucket;
+	}
+
+	static String getHost(String url) {
+		try {
+			String host = new URL(url).getHost();
+			return host.isEmpty() ? url : host.toLowerCase();
+		} catch (MalformedURLException e) {
+			return url;
+		}
+	}
+
+	/**
+	 * Allows a request to a host to proceed. Close it when the response has been processed.
+	 */
+	public static final class Permit implements AutoCloseable {
+		private Bucket bucket;
+
+		private Permit(Bucket bucket) {
+			this.bucket = bucket;
+		}
+
+		@Override
+		public void close() {
+			if (bucket != null) {
+				bucket.inFlight.release();
+				bucket = null;
+			}
+		}
+	}
+
+	private static final class Limits {
+		final double requestsPerSecond;
+		final int burst;
+		final int maxInFlight;
+
+		Limits(double requestsPerSecond, int burst, int maxInFlight) {
+			if (requestsPerSecond <= 0) {
+				throw new IllegalArgumentException("Requests per second must be positive. Got " + requestsPerSecond);
+			}
+			if (burst < 1) {
+				throw new IllegalArgumentException("Burst must be at least 1. Got " + burst);
+			}
+			if (maxInFlight < 1) {
+				throw new IllegalArgumentException("Maximum number of requests in flight must be at least 1. Got " + maxInFlight);
+			}
+			this.requestsPerSecond = requestsPerSecond;
+			this.burst = burst;
+			this.maxInFlight = maxInFlight;
+		}
+	}
+
+	private static final class Bucket {
+		final Semaphore inFlight;
+		final double nanosPerToken;
+		final double capacity;
+
+		double tokens;
+		long lastRefill;
+
+		Bucket(Limits limits) {
+			this.inFlight = new Semaphore(limits.maxInFlight, true);
+			this.nanosPerToken = TimeUnit.SECONDS.toNanos(1) / limits.requestsPerSecond;
+			this.capacity = limits.burst;
+			this.tokens = limits.burst;
+			this.lastRefill = System.nanoTime();
+		}
+
+		void awaitToken() throws InterruptedException {
+			long wait;
+			synchronized (this) {
+				long now = System.nanoTime();
+				tokens = Math.min(capacity, tokens + (now - lastRefill) / nanosPerToken);
+				lastRefill = now;
+
+				// tokens can go negative: threads that arrive later reserve the tokens that will be added next.
+				tokens -= 1.0;
+				wait = tokens >= 0 ? 0 : (long) (-tokens * nanosPerToken);
+			}
+			if (wait > 0) {
+				boolean waited = false;
+				try {
+					TimeUnit.NANOSECONDS.sleep(wait);
+					waited = true;
+				} finally {
+					if (!waited) {
+						// the request won't be sent: give back the token reserved for it.
+						synchronized (this) {
+							tokens += 1.0;
+						}
+					}
+				}
+			}
+		}
+	}
+}
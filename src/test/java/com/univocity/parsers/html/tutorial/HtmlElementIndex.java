@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.tutorial;
+
+import com.univocity.api.entity.html.*;
+
+import java.util.*;
+
+/**
+ * An index of the elements under a root {@link HtmlElement}, usually obtained from {@link HtmlParser#parseTree}.
+ * Elements can be looked up by tag name, CSS class or ID without walking through the tree again.
+ *
+ * Use it when running many ad-hoc lookups against the same large page: the index is built once, on the first lookup,
+ * with a single pass over the tree. Lists of elements are kept in document order.
+ *
+ * The tree must not be modified after the index is built. This class is thread-safe.
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+public class HtmlElementIndex {
+
+	private final HtmlElement root;
+
+	private volatile Index index;
+
+	/**
+	 * Creates an index of all elements under the given root element. Nothing is indexed until the first lookup.
+	 *
+	 * @param root the root of the tree to index. The root itself is not indexed.
+	 */
+	public HtmlElementIndex(HtmlElement root) {
+		this.root = root;
+	}
+
+	/**
+	 * Returns all elements with the given tag name
+	 *
+	 * @param tagName the tag name, case insensitive.
+	 *
+	 * @return the elements found, in document order. Never {@code null}
+	 */
+	public List<HtmlElement> getElementsByTagName(String tagName) {
+		return get(getIndex().byTag, tagName.toLowerCase());
+	}
+
+	/**
+	 * Returns all elements with the given CSS class
+	 *
+	 * @param className the class name, case sensitive.
+	 *
+	 * @return the elements found, in document order. Never {@code null}
+	 */
+	public List<HtmlElement> getElementsByClass(String className) {
+		return get(getIndex().byClass, className);
+	}
+
+	/**
+	 * Returns the first element with the given ID
+	 *
+	 * @param id the element ID, case sensitive.
+	 *
+	 * @return the element with the given ID, or {@code null} if not found.
+	 */
+	public HtmlElement getElementById(String id) {
+		List<HtmlElement> elements = getIndex().byId.get(id);
+		return elements == null ? null : elements.get(0);
+	}
+
+	/**
+	 * Returns all elements whose ID matches the given pattern, e.g. {@code "*_hpFirmName"}.
+	 *
+	 * @param idPattern the ID pattern, case sensitive, where {@code *} matches any sequence of characters and
+	 *                  {@code ?} matches any single character. See {@link WildcardMatcher}.
+	 *
+	 * @return the elements found, in document order. Never {@code null}
+	 */
+	public List<HtmlElement> getElementsById(String idPattern) {
+		return getElementsById(WildcardMatcher.compile(idPattern));
+	}
+
+	/**
+	 * Returns all elements whose ID matches the given compiled pattern. Compile the pattern once and reuse it when
+	 * running the same lookup over many pages.
+	 *
+	 * @param idPattern the compiled ID pattern
+	 *
+	 * @return the elements found, in document order. Never {@code null}
+	 */
+	public List<HtmlElement> getElementsById(WildcardMatcher idPattern) {
+		Index index = getIndex();
+		if (idPattern.getKind() == WildcardMatcher.Kind.EXACT && idPattern.getPattern().indexOf('?') == -1) {
+			return get(index.byId, idPattern.getPattern());
+		}
+
+		List<HtmlElement> out = new ArrayList<>();
+		for (int i = 0; i < index.ids.size(); i++) {
+			if (idPattern.matches(index.ids.get(i))) {
+				out.add(index.elementsWithId.get(i));
+			}
+		}
+		return out;
+	}
+
+	private static List<HtmlElement> get(Map<String, List<HtmlElement>> map, String key) {
+		List<HtmlElement> elements = map.get(key);
+		return elements == null ? Collections.<HtmlElement>emptyList() : Collections.unmodifiableList(elements);
+	}
+
+	private Index getIndex() {
+		Index out = index;
+		if (out == null) {
+			synchronized (this) {
+				out = index;
+				if (out == null) {
+					out = new Index(root);
+					index = out;
+				}
+			}
+		}
+		return out;
+	}
+
+	private static final class Index {
+		final Map<String, List<HtmlElement>> byTag = new HashMap<>();
+		final Map<String, List<HtmlElement>> byClass = new HashMap<>();
+		final Map<String, List<HtmlElement>> byId = new HashMap<>();
+		final List<String> ids = new ArrayList<>();
+		final List<HtmlElement> elementsWithId = new ArrayList<>();
+
+		Index(HtmlElement root) {
+			// walks through the tree without recursion, as some pages nest elements very deeply.
+			Deque<HtmlElement> pending = new ArrayDeque<>();
+			pushChildren(root, pending);
+
+			while (!pending.isEmpty()) {
+				HtmlElement element = pending.pop();
+				String tagName = element.tagName();
+				if (tagName != null) {
+					add(byTag, tagName.toLowerCase(), element);
+					for (String className : element.classes()) {
+						add(byClass, className, element);
+					}
+					String id = element.id();
+					if (id != null && !id.isEmpty()) {
+						add(byId, id, element);
+						ids.add(id);
+						elementsWithId.add(element);
+					}
+				}
+				pushChildren(element, pending);
+			}
+		}
+
+		private static void pushChildren(HtmlElement element, Deque<HtmlElement> pending) {
+			List<HtmlElement> children = element.children();
+			if (children != null) {
+				for (int i = children.size() - 1; i >= 0; i--) {
+					pending.push(children.get(i));
+				}
+			}
+		}
+
+		private static void add(Map<String, List<HtmlElement>> map, String key, HtmlElement element) {
+			List<HtmlElement> elements = map.get(key);
+			if (elements == null) {
+				elements = new ArrayList<>();
+				map.put(key, elements);
+			}
+			elements.add(element);
+		}
+	}
+}
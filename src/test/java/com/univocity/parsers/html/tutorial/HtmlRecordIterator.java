@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.tutorial;
+
+import com.univocity.api.entity.html.*;
+import com.univocity.api.io.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.stream.*;
+
+/**
+ * Iterates over the records of an entity, parsing the given inputs lazily: the next input is only parsed when all
+ * records of the current input have been consumed. Stop iterating (or close the iterator) and the remaining inputs
+ * won't be downloaded or parsed.
+ *
+ * Instances are created with {@link StreamingHtmlParser#iterate(String, Iterable)}.
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+public class HtmlRecordIterator implements Iterator<HtmlRecord>, Closeable {
+
+	private final HtmlParser parser;
+	private final String entityName;
+	private final Iterator<? extends ReaderProvider> inputs;
+
+	private Iterator<HtmlRecord> current = Collections.emptyIterator();
+	private boolean closed;
+	private boolean entityFound;
+
+	HtmlRecordIterator(HtmlParser parser, String entityName, Iterator<? extends ReaderProvider> inputs) {
+		this.parser = parser;
+		this.entityName = entityName;
+		this.inputs = inputs;
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (!closed && !current.hasNext()) {
+			if (!inputs.hasNext()) {
+				close();
+				break;
+			}
+			HtmlParserResult result = parser.parse(inputs.next()).get(entityName);
+			if (result != null) {
+				entityFound = true;
+				current = result.iterateRecords().iterator();
+			} else if (!entityFound) {
+				// fails on the first input instead of downloading and parsing all of them for nothing.
+				close();
+				throw new IllegalArgumentException("Unknown entity '" + entityName + "'");
+			}
+		}
+		return !closed && current.hasNext();
+	}
+
+	@Override
+	public HtmlRecord next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return current.next();
+	}
+
+	/**
+	 * Returns a sequential stream over the remaining records. Closing the stream closes this iterator.
+	 *
+	 * @return a stream of records, parsed on demand.
+	 */
+	public Stream<HtmlRecord> stream() {
+		Spliterator<HtmlRecord> spliterator = Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL);
+		return StreamSupport.stream(spliterator, false).onClose(this::close);
+	}
+
+	/**
+	 * Stops the iteration. No more inputs will be parsed.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		current = Collections.emptyIterator();
+	}
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.tutorial;
+
+import com.univocity.api.entity.html.*;
+import com.univocity.api.io.*;
+
+/**
+ * Receives the records produced by a {@link StreamingHtmlParser} as soon as each input is parsed, similarly to what a
+ * {@code RowProcessor} does for the parsers of univocity-parsers. Records should be written out or converted right
+ * away: the parser releases them after they are handed over to this processor.
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+public interface HtmlRecordProcessor {
+
+	/**
+	 * Notifies the processor that a new input is about to be parsed.
+	 *
+	 * @param input the input to be parsed
+	 */
+	default void inputStarted(ReaderProvider input) {
+
+	}
+
+	/**
+	 * Invoked for each record of the input being parsed, after the whole input has been parsed. Records are grouped by
+	 * entity: all records of one entity are delivered, in the order that entity collected them, before the records of
+	 * the next entity. Records of different entities are not interleaved in the order they appear in the input.
+	 *
+	 * @param entityName the name of the entity that produced the record
+	 * @param record     the record with the values collected from the input.
+	 */
+	void recordProcessed(String entityName, HtmlRecord record);
+
+	/**
+	 * Notifies the processor that all records of the given input were processed.
+	 *
+	 * @param input the input that has been parsed
+	 */
+	default void inputEnded(ReaderProvider input) {
+
+	}
+}
@@ -0,0 +1,583 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.tutorial;
+
+import com.univocity.api.io.*;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.security.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Stores HTTP responses on disk so that crawls executed again only download the pages that changed.
+ *
+ * Each response is stored under a key made of the request method, the normalized URL and the form parameters sent
+ * with the request (such as the {@code __VIEWSTATE} of an ASP.NET page), along with its {@code ETag} and
+ * {@code Last-Modified} headers. A stored response is served straight from disk while it is younger than the
+ * configured time to live. After that, a conditional request is sent with {@code If-None-Match} and
+ * {@code If-Modified-Since}: if the server answers {@code 304 Not Modified}, the stored response is served again
+ * and becomes fresh for another time to live.
+ *
+ * When the size of the stored responses exceeds the configured maximum, the responses used least recently are
+ * deleted. The limit is also enforced on the responses found in the directory when the cache is created.
+ *
+ * The {@link ReaderProvider} returned by {@link #get(String)} reads the stored response, and can be given to
+ * {@link HtmlParser#parse(ReaderProvider)} as any other input. Pages requested by link followers and paginators
+ * are not fetched through this cache.
+ *
+ * This class is thread-safe:
+ *
+ * <ul>
+ * <li>concurrent requests for the same response are sent to the server only once: the other threads wait for that
+ * download and read the same stored response;</li>
+ * <li>every download is stored in a new file, and a stored response is only deleted (when evicted or replaced by a
+ * newer download) after every reader opened from the providers returned for it is closed. A provider keeps its
+ * response on disk until a reader obtained from it is closed;</li>
+ * <li>files left behind by a process that stopped in the middle of a download are deleted when the next cache over
+ * the same directory is created.</li>
+ * </ul>
+ *
+ * A directory must not be used by more than one instance at the same time.
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+public class HttpResponseCache {
+
+	private static final String BODY_EXTENSION = ".body";
+	private static final String METADATA_EXTENSION = ".properties";
+	private static final String TEMP_EXTENSION = ".tmp";
+
+	private final File directory;
+	private final long timeToLive;
+	private final long maxSize;
+
+	// guarded by "this". In access order: the first entry is the least recently used one.
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long size;
+
+	// downloads in progress, so concurrent requests for the same response share a single download.
+	private final ConcurrentHashMap<String, FutureTask<Entry>> inFlight = new ConcurrentHashMap<>();
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong notModified = new AtomicLong();
+	private final AtomicLong downloads = new AtomicLong();
+
+	/**
+	 * Creates a cache that stores responses in the given directory. Responses stored in the directory by a previous
+	 * instance are reused.
+	 *
+	 * @param directory  the directory where responses are stored.
+	 * @param timeToLive how long, in milliseconds, a response can be served without checking whether it changed.
+	 *                   Use {@code 0} to always revalidate stored responses.
+	 * @param maxSize    the maximum number of bytes stored in the directory.
+	 */
+	public HttpResponseCache(File directory, long timeToLive, long maxSize) {
+		if (timeToLive < 0) {
+			throw new IllegalArgumentException("Time to live cannot be negative. Got " + timeToLive);
+		}
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("Maximum cache size must be positive. Got " + maxSize);
+		}
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IllegalArgumentException("Unable to create cache directory '" + directory.getAbsolutePath() + "'");
+		}
+		this.directory = directory;
+		this.timeToLive = timeToLive;
+		this.maxSize = maxSize;
+		loadEntries();
+	}
+
+	/**
+	 * Returns the response of a {@code GET} request
+	 *
+	 * @param url the URL to request
+	 *
+	 * @return a provider of the response body, read from disk.
+	 */
+	public ReaderProvider get(String url) {
+		return get(url, "GET", null);
+	}
+
+	/**
+	 * Returns the response of a request
+	 *
+	 * @param url            the URL to request
+	 * @param method         the request method, e.g. {@code "GET"} or {@code "POST"}
+	 * @param formParameters the form parameters to send URL-encoded in the request body. Can be {@code null}.
+	 *
+	 * @return a provider of the response body, read from disk.
+	 */
+	public ReaderProvider get(String url, String method, Map<String, String[]> formParameters) {
+		String requestMethod = method.toUpperCase();
+		String key = key(url, requestMethod, formParameters);
+
+		while (true) {
+			Entry entry;
+			synchronized (this) {
+				entry = entries.get(key);
+				if (entry != null && System.currentTimeMillis() - entry.validatedAt < timeToLive) {
+					hits.incrementAndGet();
+					return open(entry);
+				}
+			}
+
+			Entry fetched = fetchOnce(key, () -> fetch(key, url, requestMethod, formParameters, entry));
+			synchronized (this) {
+				if (!fetched.removed) {
+					return open(fetched);
+				}
+			}
+			// evicted by other downloads before it could be opened: request it again.
+		}
+	}
+
+	private Entry fetchOnce(String key, Callable<Entry> fetch) {
+		FutureTask<Entry> task = new FutureTask<>(fetch);
+		FutureTask<Entry> running = inFlight.putIfAbsent(key, task);
+		if (running == null) {
+			try {
+				task.run();
+			} finally {
+				inFlight.remove(key, task);
+			}
+			running = task;
+		}
+
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					return running.get();
+				} catch (InterruptedException e) {
+					// the download is shared with other threads, so it's not cancelled.
+					interrupted = true;
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof RuntimeException) {
+						throw (RuntimeException) cause;
+					}
+					throw new IllegalStateException(cause);
+				}
+			}
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private Entry fetch(String key, String url, String method, Map<String, String[]> formParameters, Entry entry) {
+		try {
+			return download(key, url, method, formParameters, entry);
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to fetch " + method + " " + url, e);
+		}
+	}
+
+	private Entry download(String key, String url, String method, Map<String, String[]> formParameters, Entry entry) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+		connection.setRequestMethod(method);
+		connection.setUseCaches(false);
+		if (entry != null) {
+			if (entry.etag != null) {
+				connection.setRequestProperty("If-None-Match", entry.etag);
+			}
+			if (entry.lastModified != null) {
+				connection.setRequestProperty("If-Modified-Since", entry.lastModified);
+			}
+		}
+
+		String form = encode(formParameters);
+		if (!form.isEmpty()) {
+			connection.setDoOutput(true);
+			connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+			try (OutputStream out = connection.getOutputStream()) {
+				out.write(form.getBytes(StandardCharsets.UTF_8));
+			}
+		}
+
+		try {
+			int status = connection.getResponseCode();
+			if (status == HttpURLConnection.HTTP_NOT_MODIFIED && entry != null) {
+				notModified.incrementAndGet();
+				// an entry evicted in the meantime has no body anymore, so its metadata must not be written back.
+				synchronized (this) {
+					entry.validatedAt = System.currentTimeMillis();
+					if (!entry.removed) {
+						entry.save();
+					}
+				}
+				return entry;
+			}
+			if (status != HttpURLConnection.HTTP_OK) {
+				throw new IOException("Server returned HTTP status " + status);
+			}
+
+			// every download goes to a new file, so readers of the previous response are not affected. A body without
+			// metadata is deleted when the cache is created again.
+			File temp = File.createTempFile(key + "-", TEMP_EXTENSION, directory);
+			File body = new File(directory, temp.getName().substring(0, temp.getName().length() - TEMP_EXTENSION.length()) + BODY_EXTENSION);
+			try (InputStream in = connection.getInputStream()) {
+				Files.copy(in, temp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				Files.move(temp.toPath(), body.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			} finally {
+				temp.delete();
+			}
+
+			Entry downloaded = new Entry(key, body);
+			downloaded.url = url;
+			downloaded.etag = connection.getHeaderField("ETag");
+			downloaded.lastModified = connection.getHeaderField("Last-Modified");
+			downloaded.encoding = getEncoding(connection.getContentType());
+			downloaded.validatedAt = System.currentTimeMillis();
+			downloaded.length = body.length();
+			try {
+				downloaded.save();
+			} catch (IOException e) {
+				body.delete();
+				throw e;
+			}
+			downloads.incrementAndGet();
+
+			put(downloaded);
+			return downloaded;
+		} finally {
+			connection.disconnect();
+		}
+	}
+
+	private synchronized void put(Entry entry) {
+		Entry previous = entries.put(entry.key, entry);
+		if (previous != null) {
+			size -= previous.length;
+			// the metadata file now describes the new entry.
+			discard(previous, false);
+		}
+		size += entry.length;
+		evict(entry);
+	}
+
+	// removes the least recently used entries, except the given one, until the size limit is respected.
+	private void evict(Entry keep) {
+		Iterator<Entry> it = entries.values().iterator();
+		while (size > maxSize && it.hasNext()) {
+			Entry eldest = it.next();
+			if (eldest == keep) {
+				continue;
+			}
+			it.remove();
+			size -= eldest.length;
+			discard(eldest, true);
+		}
+	}
+
+	private void discard(Entry entry, boolean deleteMetadata) {
+		entry.removed = true;
+		if (deleteMetadata) {
+			entry.metadata().delete();
+		}
+		if (entry.readers == 0) {
+			entry.body.delete();
+		}
+	}
+
+	private ReaderProvider open(Entry entry) {
+		entry.readers++;
+		entry.body.setLastModified(System.currentTimeMillis());
+		return new StoredResponse(entry);
+	}
+
+	private synchronized void retain(Entry entry) {
+		entry.readers++;
+	}
+
+	private synchronized void release(Entry entry) {
+		entry.readers--;
+		if (entry.readers == 0 && entry.removed) {
+			entry.body.delete();
+		}
+	}
+
+	private synchronized void loadEntries() {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			return;
+		}
+		List<Entry> loaded = new ArrayList<>();
+		Set<String> bodies = new HashSet<>();
+		for (File file : files) {
+			String name = file.getName();
+			if (name.endsWith(METADATA_EXTENSION)) {
+				Entry entry = loadEntry(name.substring(0, name.length() - METADATA_EXTENSION.length()), file);
+				if (entry != null) {
+					loaded.add(entry);
+					bodies.add(entry.body.getName());
+				}
+			}
+		}
+
+		// bodies without metadata and temporary files are leftovers of interrupted downloads.
+		for (File file : files) {
+			String name = file.getName();
+			if (name.endsWith(TEMP_EXTENSION) || (name.endsWith(BODY_EXTENSION) && !bodies.contains(name))) {
+				file.delete();
+			}
+		}
+
+		// the last modification time of each body is updated when it's used.
+		loaded.sort(Comparator.comparingLong(entry -> entry.body.lastModified()));
+		for (Entry entry : loaded) {
+			entries.put(entry.key, entry);
+			size += entry.length;
+		}
+		evict(null);
+	}
+
+	private Entry loadEntry(String key, File metadata) {
+		Properties properties = new Properties();
+		try (InputStream in = new FileInputStream(metadata)) {
+			properties.load(in);
+		} catch (IOException e) {
+			metadata.delete();
+			return null;
+		}
+
+		File body = new File(directory, properties.getProperty("body", key + BODY_EXTENSION));
+		if (!body.isFile() || properties.getProperty("url") == null) {
+			// leftover of an interrupted download.
+			metadata.delete();
+			return null;
+		}
+		Entry entry = new Entry(key, body);
+		entry.url = properties.getProperty("url");
+		entry.etag = properties.getProperty("etag");
+		entry.lastModified = properties.getProperty("lastModified");
+		entry.encoding = properties.getProperty("encoding", "UTF-8");
+		entry.validatedAt = Long.parseLong(properties.getProperty("validatedAt", "0"));
+		entry.length = body.length();
+		return entry;
+	}
+
+	/**
+	 * Deletes every stored response. Responses still being read are deleted once their readers are closed.
+	 */
+	public synchronized void clear() {
+		for (Entry entry : entries.values()) {
+			discard(entry, true);
+		}
+		entries.clear();
+		size = 0;
+	}
+
+	/**
+	 * Returns the number of responses served from disk without contacting the server
+	 *
+	 * @return the number of cache hits
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * Returns the number of conditional requests answered with {@code 304 Not Modified}
+	 *
+	 * @return the number of stored responses that were revalidated
+	 */
+	public long getNotModified() {
+		return notModified.get();
+	}
+
+	/**
+	 * Returns the number of responses downloaded and stored
+	 *
+	 * @return the number of responses that were not stored yet or had changed
+	 */
+	public long getDownloads() {
+		return downloads.get();
+	}
+
+	/**
+	 * Returns the total size of the stored responses
+	 *
+	 * @return the number of bytes of response bodies stored on disk.
+	 */
+	public synchronized long getSize() {
+		return size;
+	}
+
+	static String key(String url, String method, Map<String, String[]> formParameters) {
+		StringBuilder out = new StringBuilder();
+		out.append(method).append(' ').append(Urls.normalize(url));
+		if (formParameters != null) {
+			for (Map.Entry<String, String[]> parameter : new TreeMap<>(formParameters).entrySet()) {
+				out.append('\n').append(parameter.getKey()).append('=');
+				if (parameter.getValue() != null) {
+					out.append(String.join("\u0000", parameter.getValue()));
+				}
+			}
+		}
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-1").digest(out.toString().getBytes(StandardCharsets.UTF_8));
+			StringBuilder hex = new StringBuilder(digest.length * 2);
+			for (byte b : digest) {
+				hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String encode(Map<String, String[]> formParameters) throws UnsupportedEncodingException {
+		if (formParameters == null) {
+			return "";
+		}
+		StringBuilder out = new StringBuilder();
+		for (Map.Entry<String, String[]> parameter : formParameters.entrySet()) {
+			String[] values = parameter.getValue() == null ? new String[]{""} : parameter.getValue();
+			for (String value : values) {
+				if (out.length() > 0) {
+					out.append('&');
+				}
+				out.append(URLEncoder.encode(parameter.getKey(), "UTF-8")).append('=');
+				out.append(URLEncoder.encode(value == null ? "" : value, "UTF-8"));
+			}
+		}
+		return out.toString();
+	}
+
+	private static String getEncoding(String contentType) {
+		if (contentType != null) {
+			for (String part : contentType.split(";")) {
+				part = part.trim();
+				if (part.regionMatches(true, 0, "charset=", 0, 8)) {
+					String charset = part.substring(8).replace("\"", "").trim();
+					if (Charset.isSupported(charset)) {
+						return charset;
+					}
+				}
+			}
+		}
+		return "UTF-8";
+	}
+
+	/**
+	 * A stored response. Fields other than {@code readers} and {@code removed} are not modified after the entry is
+	 * published, except {@code validatedAt}, which is only updated by the thread revalidating the entry while holding
+	 * the lock of the cache.
+	 */
+	private final class Entry {
+		final String key;
+		final File body;
+		String url;
+		String etag;
+		String lastModified;
+		String encoding;
+		volatile long validatedAt;
+		long length;
+
+		// guarded by the cache.
+		int readers;
+		boolean removed;
+
+		Entry(String key, File body) {
+			this.key = key;
+			this.body = body;
+		}
+
+		File metadata() {
+			return new File(directory, key + METADATA_EXTENSION);
+		}
+
+		void save() throws IOException {
+			Properties properties = new Properties();
+			properties.setProperty("url", url);
+			properties.setProperty("body", body.getName());
+			properties.setProperty("encoding", encoding);
+			properties.setProperty("validatedAt", String.valueOf(validatedAt));
+			if (etag != null) {
+				properties.setProperty("etag", etag);
+			}
+			if (lastModified != null) {
+				properties.setProperty("lastModified", lastModified);
+			}
+
+			// the metadata of a response is replaced at once, so it always describes a complete body.
+			File temp = File.createTempFile(key + "-", TEMP_EXTENSION, directory);
+			try {
+				try (OutputStream out = new FileOutputStream(temp)) {
+					properties.store(out, null);
+				}
+				Files.move(temp.toPath(), metadata().toPath(), StandardCopyOption.REPLACE_EXISTING);
+			} finally {
+				temp.delete();
+			}
+		}
+	}
+
+	/**
+	 * Reads a stored response. The response stays on disk while the provider has not been read, and while any reader
+	 * obtained from it is open.
+	 */
+	private final class StoredResponse extends ReaderProvider {
+		private final Entry entry;
+		private boolean pinned = true;
+
+		StoredResponse(Entry entry) {
+			this.entry = entry;
+		}
+
+		@Override
+		public Reader getResource() {
+			retain(entry);
+			Reader reader;
+			try {
+				reader = new InputStreamReader(new FileInputStream(entry.body), entry.encoding);
+			} catch (IOException e) {
+				release(entry);
+				throw new IllegalStateException("Unable to read stored response of " + entry.url + " from '" + entry.body.getAbsolutePath() + "'", e);
+			}
+			return new FilterReader(reader) {
+				private boolean closed;
+
+				@Override
+				public void close() throws IOException {
+					if (closed) {
+						return;
+					}
+					closed = true;
+					try {
+						super.close();
+					} finally {
+						release(entry);
+						unpin();
+					}
+				}
+			};
+		}
+
+		// the reference taken when this provider was created is released after the first reader is closed.
+		private void unpin() {
+			synchronized (HttpResponseCache.this) {
+				if (pinned) {
+					pinned = false;
+					release(entry);
+				}
+			}
+		}
+
+		@Override
+		public String toString() {
+			return entry.url;
+		}
+	}
+}
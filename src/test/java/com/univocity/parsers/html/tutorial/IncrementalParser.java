@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.tutorial;
+
+import com.univocity.api.entity.html.*;
+import com.univocity.api.io.*;
+import com.univocity.parsers.common.*;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Parses pages saved to disk again only when their contents changed.
+ *
+ * Daily crawls that store pages with {@code setDownloadContentDirectory()} and {@code setFileNamePattern()} often
+ * download pages that are identical to the copy stored the day before. This parser keeps the
+ * {@link ContentFingerprint} of each file it parses along with its results. When the same file is given again with
+ * the same contents, the previous results are returned without parsing it.
+ *
+ * Files are identified by their canonical path. Use {@link #parse(File, File, Results)} to compare a new copy of a
+ * page against the copy stored by a previous run instead.
+ *
+ * Results are kept in memory for a limited number of files, the ones parsed most recently. A file whose results were
+ * discarded is parsed again even if it didn't change.
+ *
+ * Results can't be stored on disk, but fingerprints can: create the parser with a state file and call {@link #save()}
+ * when a run ends. The next run loads the fingerprints and {@link #isModified(File)} tells which files changed since
+ * they were parsed by the previous run, so the pages whose results were already processed (e.g. stored in a database)
+ * can be skipped without being parsed.
+ *
+ * This class is not thread-safe.
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+public class IncrementalParser {
+
+	private final HtmlParser parser;
+	private final String encoding;
+	private final Map<String, ParsedPage> pages;
+	private final Map<String, Long> fingerprints = new HashMap<>();
+	private final File stateFile;
+
+	private long parsed;
+	private long reused;
+
+	/**
+	 * Creates an incremental parser
+	 *
+	 * @param entityList the entities to be collected from each file.
+	 * @param encoding   the encoding of the files.
+	 */
+	public IncrementalParser(HtmlEntityList entityList, String encoding) {
+		this(entityList, encoding, 1000, null);
+	}
+
+	/**
+	 * Creates an incremental parser that keeps the fingerprints of the files parsed across runs.
+	 *
+	 * @param entityList the entities to be collected from each file.
+	 * @param encoding   the encoding of the files.
+	 * @param maxPages   the maximum number of files whose results are kept in memory.
+	 * @param stateFile  the file with the fingerprints of the files parsed by previous runs. Loaded if it exists, and
+	 *                   updated by {@link #save()}. Can be {@code null}.
+	 */
+	public IncrementalParser(HtmlEntityList entityList, String encoding, int maxPages, File stateFile) {
+		if (maxPages < 1) {
+			throw new IllegalArgumentException("Maximum number of pages must be at least 1. Got " + maxPages);
+		}
+		this.parser = new HtmlParser(entityList);
+		this.encoding = encoding;
+		this.stateFile = stateFile;
+		this.pages = new LinkedHashMap<String, ParsedPage>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, ParsedPage> eldest) {
+				return size() > maxPages;
+			}
+		};
+		if (stateFile != null && stateFile.isFile()) {
+			loadState();
+		}
+	}
+
+	/**
+	 * Parses a file, unless its contents are the same as the last time it was given to this parser.
+	 *
+	 * @param file the file to parse
+	 *
+	 * @return the results of the file, which are the same results returned previously if the file didn't change.
+	 */
+	public Results<HtmlParserResult> parse(File file) {
+		String key = getKey(file);
+		long fingerprint = ContentFingerprint.of(file);
+
+		ParsedPage previous = pages.get(key);
+		if (previous != null && previous.fingerprint == fingerprint) {
+			reused++;
+			return previous.results;
+		}
+
+		Results<HtmlParserResult> results = parseFile(file);
+		store(key, fingerprint, results);
+		return results;
+	}
+
+	/**
+	 * Parses a file, unless its contents are the same as the contents of a previous copy of the same page.
+	 *
+	 * @param file            the file to parse
+	 * @param previousFile    the copy of the page stored by a previous run. Can be {@code null} or a file that
+	 *                        doesn't exist.
+	 * @param previousResults the results produced when the previous copy was parsed.
+	 *
+	 * @return the previous results if both files have the same contents, otherwise the results of parsing the file.
+	 */
+	public Results<HtmlParserResult> parse(File file, File previousFile, Results<HtmlParserResult> previousResults) {
+		long fingerprint = ContentFingerprint.of(file);
+		if (previousResults != null && previousFile != null && previousFile.isFile() && ContentFingerprint.of(previousFile) == fingerprint) {
+			reused++;
+			store(getKey(file), fingerprint, previousResults);
+			return previousResults;
+		}
+
+		Results<HtmlParserResult> results = parseFile(file);
+		store(getKey(file), fingerprint, results);
+		return results;
+	}
+
+	/**
+	 * Tests whether a file changed since it was last parsed, by this run or by a previous run that saved its state.
+	 *
+	 * @param file the file to test
+	 *
+	 * @return {@code false} if the file was parsed before with the same contents, {@code true} otherwise.
+	 */
+	public boolean isModified(File file) {
+		Long previous = fingerprints.get(getKey(file));
+		return previous == null || previous != ContentFingerprint.of(file);
+	}
+
+	private void store(String key, long fingerprint, Results<HtmlParserResult> results) {
+		pages.put(key, new ParsedPage(fingerprint, results));
+		fingerprints.put(key, fingerprint);
+	}
+
+	private Results<HtmlParserResult> parseFile(File file) {
+		parsed++;
+		return parser.parse(new FileProvider(file, encoding));
+	}
+
+	private static String getKey(File file) {
+		try {
+			return file.getCanonicalPath();
+		} catch (IOException e) {
+			return file.getAbsolutePath();
+		}
+	}
+
+	/**
+	 * Discards the results and fingerprints kept for every file. The state file is not modified until {@link #save()}
+	 * is called.
+	 */
+	public void clear() {
+		pages.clear();
+		fingerprints.clear();
+	}
+
+	/**
+	 * Stores the fingerprints of all files parsed so far, including the ones loaded from previous runs, in the state
+	 * file given to the constructor. The file is replaced only after it has been completely written.
+	 */
+	public void save() {
+		if (stateFile == null) {
+			throw new IllegalStateException("No state file to save fingerprints into. Use the constructor that takes a state file.");
+		}
+		File parent = stateFile.getAbsoluteFile().getParentFile();
+		try {
+			Files.createDirectories(parent.toPath());
+			Path tmp = Files.createTempFile(parent.toPath(), stateFile.getName(), ".tmp");
+			try {
+				try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+					for (Map.Entry<String, Long> e : fingerprints.entrySet()) {
+						out.write(Long.toHexString(e.getValue()));
+						out.write('\t');
+						out.write(e.getKey());
+						out.write('\n');
+					}
+				}
+				Files.move(tmp, stateFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			} finally {
+				Files.deleteIfExists(tmp);
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to save fingerprints to '" + stateFile.getAbsolutePath() + "'", e);
+		}
+	}
+
+	private void loadState() {
+		try (BufferedReader in = Files.newBufferedReader(stateFile.toPath(), StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = in.readLine()) != null) {
+				int tab = line.indexOf('\t');
+				if (tab > 0) {
+					fingerprints.put(line.substring(tab + 1), Long.parseUnsignedLong(line.substring(0, tab), 16));
+				}
+			}
+		} catch (IOException | NumberFormatException e) {
+			throw new IllegalStateException("Unable to load fingerprints from '" + stateFile.getAbsolutePath() + "'", e);
+		}
+	}
+
+	/**
+	 * Returns the number of files actually parsed
+	 *
+	 * @return the number of files that were new or had changed
+	 */
+	public long getParsedCount() {
+		return parsed;
+	}
+
+	/**
+	 * Returns the number of times previous results were returned instead of parsing a file
+	 *
+	 * @return the number of unchanged files
+	 */
+	public long getReusedCount() {
+		return reused;
+	}
+
+	private static final class ParsedPage {
+		final long fingerprint;
+		final Results<HtmlParserResult> results;
+
+		ParsedPage(long fingerprint, Results<HtmlParserResult> results) {
+			this.fingerprint = fingerprint;
+			this.results = results;
+		}
+	}
+}
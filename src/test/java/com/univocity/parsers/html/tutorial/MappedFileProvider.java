@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.tutorial;
+
+import com.univocity.api.io.*;
+
+import java.io.*;
+import java.net.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+
+/**
+ * Provides a {@link Reader} that decodes the contents of a memory-mapped file. Use it instead of a
+ * {@link FileProvider} to reprocess large files stored locally, such as the pages saved under the download directory
+ * of a previous crawl: the bytes are decoded straight from the mapped file into the parser's buffer, without being
+ * copied into an intermediate byte array first.
+ *
+ * The parser can't resolve relative links against a mapped file, so keep using {@link FileProvider} when link
+ * followers or a paginator need to reach other local files.
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+public class MappedFileProvider extends ReaderProvider {
+
+	private final File file;
+	private final Charset encoding;
+
+	/**
+	 * Creates a provider for the given file
+	 *
+	 * @param file     the file to read
+	 * @param encoding the encoding of the file
+	 */
+	public MappedFileProvider(File file, Charset encoding) {
+		if (file == null) {
+			throw new IllegalArgumentException("File cannot be null");
+		}
+		if (encoding == null) {
+			throw new IllegalArgumentException("Encoding cannot be null");
+		}
+		this.file = file;
+		this.encoding = encoding;
+	}
+
+	/**
+	 * Creates a provider for the file at the given path. Like {@link FileProvider}, the path is looked up in the
+	 * classpath if there is no such file in the file system.
+	 *
+	 * @param path     the path to the file
+	 * @param encoding the encoding of the file
+	 */
+	public MappedFileProvider(String path, String encoding) {
+		this(findFile(path), Charset.forName(encoding));
+	}
+
+	static File findFile(String path) {
+		File file = new File(path);
+		if (file.exists()) {
+			return file;
+		}
+		URL url = MappedFileProvider.class.getClassLoader().getResource(path);
+		if (url == null || !"file".equals(url.getProtocol())) {
+			throw new IllegalArgumentException("Unable to find file '" + path + "'");
+		}
+		try {
+			return new File(url.toURI());
+		} catch (URISyntaxException e) {
+			throw new IllegalArgumentException("Unable to find file '" + path + "'", e);
+		}
+	}
+
+	/**
+	 * Returns the file read by this provider
+	 *
+	 * @return the file to be read
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	@Override
+	public Reader getResource() {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			// the mapping remains valid after the channel is closed.
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return new ByteBufferReader(buffer, encoding);
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to map file '" + file.getAbsolutePath() + "'", e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return file.getAbsolutePath();
+	}
+
+	/**
+	 * Decodes characters straight from a {@link ByteBuffer} into the buffer given by the caller.
+	 */
+	static final class ByteBufferReader extends Reader {
+		private final ByteBuffer in;
+		private final CharsetDecoder decoder;
+		private char lowSurrogate;
+		private boolean hasLowSurrogate;
+		private boolean flushed;
+
+		ByteBufferReader(ByteBuffer in, Charset encoding) {
+			this.in = in;
+			this.decoder = encoding.newDecoder()
+					.onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		}
+
+		@Override
+		public int read(char[] buffer, int offset, int length) throws IOException {
+			if (length == 0) {
+				return 0;
+			}
+
+			// the low surrogate of a pair that didn't fit in the previous call
+			if (hasLowSurrogate) {
+				buffer[offset] = lowSurrogate;
+				hasLowSurrogate = false;
+				return 1;
+			}
+			if (flushed) {
+				return -1;
+			}
+
+			CharBuffer out = CharBuffer.wrap(buffer, offset, length);
+			decode(out);
+			if (out.position() == offset && !flushed) {
+				// a surrogate pair doesn't fit in the space available.
+				CharBuffer pair = CharBuffer.wrap(new char[2]);
+				decode(pair);
+				if (pair.position() > 0) {
+					buffer[offset] = pair.get(0);
+					if (pair.position() == 2) {
+						lowSurrogate = pair.get(1);
+						hasLowSurrogate = true;
+					}
+					return 1;
+				}
+			}
+
+			int read = out.position() - offset;
+			return read == 0 ? -1 : read;
+		}
+
+		private void decode(CharBuffer out) throws IOException {
+			CoderResult result = decoder.decode(in, out, true);
+			if (result.isError()) {
+				result.throwException();
+			}
+			if (result.isUnderflow()) {
+				// all bytes consumed
+				decoder.flush(out);
+				flushed = true;
+			}
+		}
+
+		@Override
+		public void close() {
+			flushed = true;
+			hasLowSurrogate = false;
+		}
+	}
+}
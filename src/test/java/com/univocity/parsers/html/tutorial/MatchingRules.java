@@ -52,4 +52,46 @@ public class MatchingRules extends Tutorial {
 		}
 		printAndValidate();
 	}
+
+	@Test
+	public void indexedQueries() {
+		FileProvider input = new FileProvider("__files/company_finder/file_1.html", "UTF-8");
+		HtmlElement root = HtmlParser.parseTree(input);
+
+		//##CODE_START
+		// Builds an index of the tree on the first lookup. Subsequent lookups don't walk through the tree again.
+		HtmlElementIndex index = new HtmlElementIndex(root);
+
+		HtmlElement table = index.getElementById("ctl00_ContentPlaceHolder1_grdSearchResult");
+		List<HtmlElement> pageLinks = index.getElementsByClass("LinkPaging");
+		List<HtmlElement> links = index.getElementsByTagName("a");
+		//##CODE_END
+
+		println("Result table: <" + table.tagName() + ">");
+		println("Rows: " + (index.getElementsByClass("Row1").size() + index.getElementsByClass("Row2").size()));
+		println("Page links: " + pageLinks.size());
+		println("Same links as query(\"a\"): " + links.equals(root.query("a")));
+		printAndValidate();
+	}
+
+	@Test
+	public void wildcardQueries() {
+		FileProvider input = new FileProvider("__files/company_finder/file_1.html", "UTF-8");
+		HtmlElementIndex index = new HtmlElementIndex(HtmlParser.parseTree(input));
+
+		//##CODE_START
+		// Patterns are compiled once into the simplest test possible: exact, prefix, suffix, contains or a
+		// sequence of segments.
+		WildcardMatcher firmName = WildcardMatcher.compile("*_hpFirmName");
+		WildcardMatcher resultTable = WildcardMatcher.compile("ctl00_*_grdSearchResult");
+		WildcardMatcher highlighted = WildcardMatcher.compile("*background-color:#e2e2e2*", true);
+
+		println(firmName + " -> " + index.getElementsById(firmName).size() + " elements");
+		println(resultTable + " -> " + index.getElementsById(resultTable).size() + " elements");
+
+		// Case is ignored without creating lower case copies of the input.
+		println(highlighted + " -> " + highlighted.matches("display:inline-block;background-color:#E2E2E2;width:20px;"));
+		//##CODE_END
+		printAndValidate();
+	}
 }
@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.tutorial;
+
+import com.univocity.api.entity.html.*;
+
+import javax.management.*;
+import java.lang.management.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * A {@link HtmlParserListener} that counts what the parser does: documents parsed, elements visited, elements
+ * matched (in total and per field) and the time taken to parse each document.
+ *
+ * When a site changes its layout, the number of matches of some fields drops, or the time to process each document
+ * suddenly grows, long before a crawl times out. Sample these numbers periodically, or register the metrics with
+ * {@link #register(String)} to watch them with any JMX console. The values returned by {@link #snapshot()} can be
+ * bound to gauges of any other metrics registry.
+ *
+ * A {@link FieldValueInterner} created with these metrics also reports the values it interns, so the deduplication
+ * ratio of the collected values is available here as well.
+ *
+ * Counters are updated with {@link LongAdder}s, so the same instance can be shared by parsers running in parallel
+ * with little contention. Visiting an element only costs an increment.
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+public class ParserMetrics extends HtmlParserListener implements ParserMetricsMBean {
+
+	private final LongAdder documents = new LongAdder();
+	private final LongAdder elementsVisited = new LongAdder();
+	private final LongAdder elementsMatched = new LongAdder();
+	private final LongAdder totalTime = new LongAdder();
+	private final LongAccumulator maxTime = new LongAccumulator(Math::max, 0L);
+	private final ConcurrentHashMap<String, LongAdder> fieldMatches = new ConcurrentHashMap<>();
+	private final LongAdder valuesInterned = new LongAdder();
+	private final LongAdder duplicatesReplaced = new LongAdder();
+
+	// documents of link followers are parsed while their parent document is still being parsed.
+	private final ThreadLocal<Deque<Long>> startTimes = ThreadLocal.withInitial(ArrayDeque::new);
+
+	private ObjectName registeredName;
+
+	@Override
+	public void parsingStarted(HtmlParsingContext context) {
+		startTimes.get().push(System.nanoTime());
+	}
+
+	@Override
+	public void elementVisited(HtmlElement element, HtmlParsingContext context) {
+		elementsVisited.increment();
+	}
+
+	@Override
+	public void elementMatched(HtmlElement element, HtmlParsingContext context) {
+		elementsMatched.increment();
+		for (String fieldName : context.getMatchedElements().keySet()) {
+			LongAdder matches = fieldMatches.get(fieldName);
+			if (matches == null) {
+				matches = fieldMatches.computeIfAbsent(fieldName, name -> new LongAdder());
+			}
+			matches.increment();
+		}
+	}
+
+	@Override
+	public void parsingEnded(HtmlParsingContext context) {
+		documents.increment();
+		Long start = startTimes.get().poll();
+		if (start != null) {
+			long elapsed = System.nanoTime() - start;
+			totalTime.add(elapsed);
+			maxTime.accumulate(elapsed);
+		}
+	}
+
+	/**
+	 * Counts a value looked up by a {@link FieldValueInterner}. Invoked by interners created with these metrics.
+	 *
+	 * @param duplicate flag indicating whether the value was replaced by an equal instance seen earlier.
+	 */
+	public void valueInterned(boolean duplicate) {
+		valuesInterned.increment();
+		if (duplicate) {
+			duplicatesReplaced.increment();
+		}
+	}
+
+	@Override
+	public long getValuesInterned() {
+		return valuesInterned.sum();
+	}
+
+	@Override
+	public long getDuplicateValuesReplaced() {
+		return duplicatesReplaced.sum();
+	}
+
+	@Override
+	public double getDeduplicationRatio() {
+		long values = valuesInterned.sum();
+		return values == 0 ? 0.0 : (double) duplicatesReplaced.sum() / values;
+	}
+
+	@Override
+	public long getDocumentsParsed() {
+		return documents.sum();
+	}
+
+	@Override
+	public long getElementsVisited() {
+		return elementsVisited.sum();
+	}
+
+	@Override
+	public long getElementsMatched() {
+		return elementsMatched.sum();
+	}
+
+	/**
+	 * Returns the number of times a field was matched
+	 *
+	 * @param fieldName the name of the field
+	 *
+	 * @return the number of elements matched for the field.
+	 */
+	public long getMatches(String fieldName) {
+		LongAdder matches = fieldMatches.get(fieldName);
+		return matches == null ? 0 : matches.sum();
+	}
+
+	@Override
+	public Map<String, Long> getMatchesPerField() {
+		Map<String, Long> out = new TreeMap<>();
+		for (Map.Entry<String, LongAdder> e : fieldMatches.entrySet()) {
+			out.put(e.getKey(), e.getValue().sum());
+		}
+		return out;
+	}
+
+	@Override
+	public long getTotalParsingTimeMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(totalTime.sum());
+	}
+
+	@Override
+	public long getMaxParsingTimeMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(maxTime.get());
+	}
+
+	@Override
+	public double getAverageParsingTimeMillis() {
+		long count = documents.sum();
+		return count == 0 ? 0.0 : totalTime.sum() / 1_000_000.0 / count;
+	}
+
+	/**
+	 * Returns the current values of all metrics, with names such as {@code "documents.parsed"} or
+	 * {@code "field.matches.username"}, to be published to a metrics registry.
+	 *
+	 * @return the name and value of each metric.
+	 */
+	public Map<String, Number> snapshot() {
+		Map<String, Number> out = new LinkedHashMap<>();
+		out.put("documents.parsed", getDocumentsParsed());
+		out.put("elements.visited", getElementsVisited());
+		out.put("elements.matched", getElementsMatched());
+		out.put("parsing.time.total.ms", getTotalParsingTimeMillis());
+		out.put("parsing.time.max.ms", getMaxParsingTimeMillis());
+		out.put("parsing.time.average.ms", getAverageParsingTimeMillis());
+		out.put("values.interned", getValuesInterned());
+		out.put("values.duplicates", getDuplicateValuesReplaced());
+		out.put("values.deduplication.ratio", getDeduplicationRatio());
+		for (Map.Entry<String, Long> e : getMatchesPerField().entrySet()) {
+			out.put("field.matches." + e.getKey(), e.getValue());
+		}
+		return out;
+	}
+
+	@Override
+	public void reset() {
+		documents.reset();
+		elementsVisited.reset();
+		elementsMatched.reset();
+		totalTime.reset();
+		maxTime.reset();
+		fieldMatches.clear();
+		valuesInterned.reset();
+		duplicatesReplaced.reset();
+	}
+
+	/**
+	 * Exposes these metrics through JMX, under {@code com.univocity.parsers.html:type=ParserMetrics,name=<name>}
+	 *
+	 * @param name a name that identifies the crawl or parser being measured.
+	 */
+	public synchronized void register(String name) {
+		try {
+			ObjectName objectName = new ObjectName("com.univocity.parsers.html:type=ParserMetrics,name=" + ObjectName.quote(name));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+			registeredName = objectName;
+		} catch (JMException e) {
+			throw new IllegalStateException("Unable to register parser metrics '" + name + "'", e);
+		}
+	}
+
+	/**
+	 * Removes these metrics from JMX, if they were registered with {@link #register(String)}.
+	 */
+	public synchronized void unregister() {
+		if (registeredName != null) {
+			try {
+				ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+			} catch (JMException e) {
+				throw new IllegalStateException("Unable to unregister parser metrics " + registeredName, e);
+			} finally {
+				registeredName = null;
+			}
+		}
+	}
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.tutorial;
+
+import java.util.*;
+
+/**
+ * The attributes of {@link ParserMetrics} exposed through JMX.
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+public interface ParserMetricsMBean {
+
+	/**
+	 * Returns the number of documents parsed, including the pages visited by link followers.
+	 *
+	 * @return the number of documents parsed
+	 */
+	long getDocumentsParsed();
+
+	/**
+	 * Returns the number of HTML elements visited by the parser
+	 *
+	 * @return the number of elements visited
+	 */
+	long getElementsVisited();
+
+	/**
+	 * Returns the number of HTML elements matched by the rules of any field
+	 *
+	 * @return the number of elements matched
+	 */
+	long getElementsMatched();
+
+	/**
+	 * Returns the time spent parsing all documents
+	 *
+	 * @return the total parsing time, in milliseconds.
+	 */
+	long getTotalParsingTimeMillis();
+
+	/**
+	 * Returns the time taken to parse the slowest document
+	 *
+	 * @return the longest parsing time, in milliseconds.
+	 */
+	long getMaxParsingTimeMillis();
+
+	/**
+	 * Returns the average time taken to parse a document
+	 *
+	 * @return the average parsing time, in milliseconds.
+	 */
+	double getAverageParsingTimeMillis();
+
+	/**
+	 * Returns the number of elements matched for each field
+	 *
+	 * @return a map of field names to their number of matches, sorted by field name.
+	 */
+	Map<String, Long> getMatchesPerField();
+
+	/**
+	 * Returns the number of values looked up by the {@link FieldValueInterner}s that report to these metrics
+	 *
+	 * @return the number of values interned
+	 */
+	long getValuesInterned();
+
+	/**
+	 * Returns the number of values replaced by an equal instance seen earlier
+	 *
+	 * @return the number of duplicate values replaced
+	 */
+	long getDuplicateValuesReplaced();
+
+	/**
+	 * Returns the fraction of interned values that were duplicates
+	 *
+	 * @return a value between {@code 0.0} (no duplicates) and {@code 1.0}.
+	 */
+	double getDeduplicationRatio();
+
+	/**
+	 * Sets all metrics back to zero
+	 */
+	void reset();
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.tutorial;
+
+import com.univocity.api.entity.html.*;
+import com.univocity.api.io.*;
+import com.univocity.parsers.common.*;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+/**
+ * A parser that can be shared by any number of threads, e.g. held by a web service that parses the pages sent
+ * by concurrent requests.
+ *
+ * A {@link HtmlParser} keeps the state of the input being parsed, so it must not be used by two threads at the same
+ * time. This class keeps a pool of parsers, each one built from its own {@link HtmlEntityList} produced by the given
+ * factory. A parse call borrows an idle parser, or builds a new one if none is available, and returns it to the pool
+ * once the input has been parsed successfully. The rules of each parser are therefore built once and reused across
+ * calls, while the state of each parse stays confined to the thread that runs it.
+ *
+ * A parser that fails is discarded, as its internal state is unknown. Failures don't shrink the pool: the next call
+ * that finds no idle parser builds a new one.
+ *
+ * The factory must build a new entity list every time it is called: entity lists are not meant to be shared between
+ * parsers.
+ *
+ * This class is thread-safe.
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+public class SharedHtmlParser {
+
+	private final Supplier<HtmlEntityList> entityListFactory;
+	private final BlockingQueue<HtmlParser> idleParsers;
+	private final AtomicInteger parsersCreated = new AtomicInteger();
+
+	/**
+	 * Creates a shared parser that keeps up to as many idle parsers as there are available processors.
+	 *
+	 * @param entityListFactory produces a new entity list for each parser in the pool.
+	 */
+	public SharedHtmlParser(Supplier<HtmlEntityList> entityListFactory) {
+		this(entityListFactory, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates a shared parser
+	 *
+	 * @param entityListFactory produces a new entity list for each parser in the pool.
+	 * @param maxIdle           the maximum number of idle parsers kept for reuse. Parsers created to handle a
+	 *                          burst of concurrent calls beyond this number are discarded after use.
+	 */
+	public SharedHtmlParser(Supplier<HtmlEntityList> entityListFactory, int maxIdle) {
+		if (entityListFactory == null) {
+			throw new IllegalArgumentException("Entity list factory cannot be null");
+		}
+		if (maxIdle < 1) {
+			throw new IllegalArgumentException("Maximum number of idle parsers must be at least 1. Got " + maxIdle);
+		}
+		this.entityListFactory = entityListFactory;
+		this.idleParsers = new ArrayBlockingQueue<>(maxIdle);
+	}
+
+	/**
+	 * Parses the given input. Can be called from any thread.
+	 *
+	 * @param input the input to parse
+	 *
+	 * @return the results of each entity.
+	 */
+	public Results<HtmlParserResult> parse(ReaderProvider input) {
+		// an empty pool, e.g. after parsers were discarded, is refilled here.
+		HtmlParser parser = idleParsers.poll();
+		if (parser == null) {
+			parser = newParser();
+		}
+		boolean success = false;
+		try {
+			Results<HtmlParserResult> results = parser.parse(input);
+			success = true;
+			return results;
+		} finally {
+			// a parser that failed is discarded, as its internal state is unknown.
+			if (success) {
+				idleParsers.offer(parser);
+			}
+		}
+	}
+
+	private HtmlParser newParser() {
+		HtmlEntityList entityList = entityListFactory.get();
+		if (entityList == null) {
+			throw new IllegalStateException("Entity list factory returned null");
+		}
+		parsersCreated.incrementAndGet();
+		return new HtmlParser(entityList);
+	}
+
+	/**
+	 * Returns the number of parsers created so far. Should stay close to the number of threads using this instance at
+	 * the same time.
+	 *
+	 * @return the number of times the entity list factory was invoked.
+	 */
+	public int getParsersCreated() {
+		return parsersCreated.get();
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.tutorial;
+
+import com.univocity.api.entity.html.*;
+import com.univocity.api.io.*;
+import com.univocity.parsers.common.*;
+
+import java.util.function.*;
+
+/**
+ * Parses a sequence of inputs one at a time, handing the records of each input to a {@link HtmlRecordProcessor}
+ * and discarding them before the next input is parsed.
+ *
+ * {@link HtmlParser#parse(ReaderProvider)} keeps every row of every page it visits until it returns. When a crawl
+ * covers many pages, give each page to this parser instead (for example, the files saved under the download
+ * directory of a previous run) so that only the rows of one page are held in memory at any given time.
+ *
+ * The entity list should not have a {@link HtmlPaginator} configured, otherwise a single input will produce the
+ * rows of all pages reached by the paginator before any of them is processed.
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+public class StreamingHtmlParser {
+
+	private final HtmlParser parser;
+
+	/**
+	 * Creates a streaming parser for the given entity list
+	 *
+	 * @param entityList the entities to be collected from each input.
+	 */
+	public StreamingHtmlParser(HtmlEntityList entityList) {
+		this.parser = new HtmlParser(entityList);
+	}
+
+	/**
+	 * Returns an iterator over the records of an entity that only parses the next input when the records of the
+	 * previous input have been consumed.
+	 *
+	 * @param entityName the name of the entity whose records should be returned
+	 * @param inputs     the inputs to parse. They are only requested from the given {@link Iterable} when needed.
+	 *
+	 * @return an iterator that parses the inputs on demand. Its {@code hasNext()} method throws an
+	 * {@link IllegalArgumentException} if the first input parsed has no results for the given entity name.
+	 */
+	public HtmlRecordIterator iterate(String entityName, Iterable<? extends ReaderProvider> inputs) {
+		return new HtmlRecordIterator(parser, entityName, inputs.iterator());
+	}
+
+	/**
+	 * Parses each input and sends its records to the given processor, one input at a time.
+	 *
+	 * @param inputs    the inputs to parse
+	 * @param processor the processor of the records of every entity.
+	 */
+	public void parse(Iterable<? extends ReaderProvider> inputs, HtmlRecordProcessor processor) {
+		for (ReaderProvider input : inputs) {
+			parse(input, processor);
+		}
+	}
+
+	/**
+	 * Parses each input and converts the records of an entity into java beans, handing each bean to the given consumer
+	 * before the next input is parsed. Results of link followers are converted along with the records they are
+	 * linked to, e.g. into {@code @Linked} fields.
+	 *
+	 * @param inputs     the inputs to parse
+	 * @param entityName the name of the entity whose records should be converted
+	 * @param beanType   the type of java bean to create from each record
+	 * @param consumer   receives each bean as soon as the input that produced it has been parsed
+	 * @param <T>        the type of java bean
+	 */
+	public <T> void parseBeans(Iterable<? extends ReaderProvider> inputs, String entityName, Class<T> beanType, Consumer<? super T> consumer) {
+		for (ReaderProvider input : inputs) {
+			parseBeans(input, entityName, beanType, consumer);
+		}
+	}
+
+	/**
+	 * Parses a single input and hands each java bean created from the records of an entity to the given consumer
+	 *
+	 * @param input      the input to parse
+	 * @param entityName the name of the entity whose records should be converted
+	 * @param beanType   the type of java bean to create from each record
+	 * @param consumer   receives each bean
+	 * @param <T>        the type of java bean
+	 */
+	public <T> void parseBeans(ReaderProvider input, String entityName, Class<T> beanType, Consumer<? super T> consumer) {
+		HtmlParserResult result = parser.parse(input).get(entityName);
+		if (result == null) {
+			throw new IllegalArgumentException("Unknown entity '" + entityName + "'");
+		}
+		for (T bean : result.getBeans(beanType)) {
+			consumer.accept(bean);
+		}
+	}
+
+	/**
+	 * Parses a single input and sends its records to the given processor
+	 *
+	 * @param input     the input to parse
+	 * @param processor the processor of the records of every entity.
+	 */
+	public void parse(ReaderProvider input, HtmlRecordProcessor processor) {
+		processor.inputStarted(input);
+
+		Results<HtmlParserResult> results = parser.parse(input);
+		for (String entityName : results.keySet()) {
+			for (HtmlRecord record : results.get(entityName).iterateRecords()) {
+				processor.recordProcessed(entityName, record);
+			}
+		}
+
+		processor.inputEnded(input);
+	}
+}
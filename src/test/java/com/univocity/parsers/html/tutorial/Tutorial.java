@@ -110,9 +110,15 @@ public abstract class Tutorial extends OutputTester{
 
 	protected void printResult(String indentation, HtmlParserResult result, boolean printHeaders) {
 		// The results have headers, rows and other information
-		List<String[]> rows = result.getRows();
+		printRows(indentation, result.getHeaders(), result.getRows(), printHeaders);
+	}
 
-		FixedWidthWriter writer = createFormattedWriter(result, printHeaders);
+	protected void printRows(String[] headers, List<String[]> rows) {
+		printRows("", headers, rows, true);
+	}
+
+	protected void printRows(String indentation, String[] headers, List<String[]> rows, boolean printHeaders) {
+		FixedWidthWriter writer = createFormattedWriter(headers, rows, printHeaders);
 
 		if (printHeaders) {
 			printHeaders(indentation, writer);
@@ -125,9 +131,10 @@ public abstract class Tutorial extends OutputTester{
 	}
 
 	protected FixedWidthWriter createFormattedWriter(HtmlParserResult result, boolean printHeaders) {
-		String[] headers = result.getHeaders();
-		List<String[]> rows = result.getRows();
+		return createFormattedWriter(result.getHeaders(), result.getRows(), printHeaders);
+	}
 
+	protected FixedWidthWriter createFormattedWriter(String[] headers, List<String[]> rows, boolean printHeaders) {
 		int[] lengths = new int[headers.length];
 		if (printHeaders) {
 			for (int i = 0; i < headers.length; i++) {
@@ -13,7 +13,12 @@ import com.univocity.parsers.common.*;
 import com.univocity.parsers.html.tutorial.beans.*;
 import org.testng.annotations.*;
 
+import java.io.*;
+import java.net.*;
+import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
 
 public class TutorialLocal extends Tutorial {
 
@@ -306,6 +311,13 @@ public class TutorialLocal extends Tutorial {
 				.getOwnText();
 	}
 
+	private void getValueFromLabel(FieldDefinition entity, String fieldName, String key) {
+		entity.addField(fieldName)
+				.match("td").classes("value")
+				.precededImmediatelyBy("td").classes("label").withText(key)
+				.getOwnText();
+	}
+
 	@Test(dataProvider = "nestingProvider")
 	public void example007LinkFollowing(Nesting nesting) {
 
@@ -591,4 +603,405 @@ public class TutorialLocal extends Tutorial {
 		//##CODE_END
 		printAndValidate();
 	}
+
+	@Test
+	public void example011ConcurrentLinkFollowing() {
+		//##CODE_START
+		// Collect the names and links to the profile of each user, without following the links.
+		HtmlEntityList entityList = new HtmlEntityList();
+		HtmlEntitySettings user = entityList.configureEntity("User");
+		user.addField("name").match("a").getText();
+		user.addField("profileUrl").match("a").getAttribute("href");
+
+		String listPage = "documentation/tutorial/html/example_007/list.html";
+		HtmlParserResult users = parse(new HtmlParser(entityList), listPage).get("User");
+
+		// Each profile page will be visited by a worker thread. Every thread gets its own parser
+		// configured with the entity list produced here.
+		Supplier<HtmlEntityList> profileEntities = () -> {
+			HtmlEntityList profileEntityList = new HtmlEntityList();
+			HtmlEntitySettings profile = profileEntityList.configureEntity("profile");
+			getValueFromLabel(profile, "username", "Username");
+			getValueFromLabel(profile, "age", "Age");
+			getValueFromLabel(profile, "location", "Location");
+			getValueFromLabel(profile, "created", "Profile created on");
+			return profileEntityList;
+		};
+
+		// Links are relative to the list page.
+		List<ReaderProvider> profilePages = new ArrayList<>();
+		for (HtmlRecord record : users.iterateRecords()) {
+			String profilePath = URI.create(listPage).resolve(record.getString("profileUrl")).toString();
+			profilePages.add(new FileProvider(profilePath, "UTF-8"));
+		}
+
+		List<Results<HtmlParserResult>> profiles;
+		// Up to 2 profile pages are fetched and parsed at the same time.
+		try (ConcurrentHtmlParser parser = new ConcurrentHtmlParser(profileEntities, 2)) {
+			profiles = parser.parseAll(profilePages);
+		}
+
+		// The results come in the same order of the inputs, so each user row can be joined with its profile.
+		String[] headers = null;
+		List<String[]> rows = new ArrayList<>();
+		int i = 0;
+		for (HtmlRecord record : users.iterateRecords()) {
+			HtmlParserResult profile = profiles.get(i++).get("profile");
+			if (headers == null) {
+				headers = concat(users.getHeaders(), profile.getHeaders());
+			}
+			String[] profileValues = profile.getRows().isEmpty() ? new String[profile.getHeaders().length] : profile.getRows().get(0);
+			rows.add(concat(record.getValues(), profileValues));
+		}
+		//##CODE_END
+
+		// Same output as example007LinkFollowing with Nesting.JOIN
+		printRows(headers, rows);
+		printAndValidate();
+	}
+
+	private String[] concat(String[] left, String[] right) {
+		String[] out = Arrays.copyOf(left, left.length + right.length);
+		System.arraycopy(right, 0, out, left.length, right.length);
+		return out;
+	}
+
+	@Test
+	public void example012StreamingRecords() {
+		//##CODE_START
+		HtmlEntityList entityList = new HtmlEntityList();
+
+		// Configure the entity that collects search results. No paginator this time.
+		HtmlEntitySettings search = entityList.configureEntity("search");
+		PartialPath resultPath = search.newPath().match("div").classes("result");
+		resultPath.addField("title").match("a").getText();
+		resultPath.addField("link").match("a").getAttribute("href");
+
+		// The pages we want to process, e.g. the files saved by a previous crawl.
+		List<FileProvider> pages = new ArrayList<>();
+		for (int i = 1; i <= 3; i++) {
+			pages.add(new FileProvider("documentation/tutorial/html/example_009/page" + i + ".html", "UTF-8"));
+		}
+
+		// Records are sent to the processor after each page is parsed, and discarded before the next page.
+		new StreamingHtmlParser(entityList).parse(pages, new HtmlRecordProcessor() {
+			@Override
+			public void recordProcessed(String entityName, HtmlRecord record) {
+				// write the record somewhere, we just print it.
+				println(entityName + ": " + Arrays.toString(record.getValues()));
+			}
+		});
+		//##CODE_END
+		printAndValidate();
+	}
+
+	@Test
+	public void example013IteratingRecords() {
+		HtmlEntityList entityList = new HtmlEntityList();
+
+		HtmlEntitySettings search = entityList.configureEntity("search");
+		PartialPath resultPath = search.newPath().match("div").classes("result");
+		resultPath.addField("title").match("a").getText();
+		resultPath.addField("link").match("a").getAttribute("href");
+
+		//##CODE_START
+		// Pages are only opened when the parser gets to them
+		List<String> openedPages = new ArrayList<>();
+		Iterable<FileProvider> pages = () -> new Iterator<FileProvider>() {
+			int page = 1;
+
+			@Override
+			public boolean hasNext() {
+				return page <= 3;
+			}
+
+			@Override
+			public FileProvider next() {
+				String path = "documentation/tutorial/html/example_009/page" + page++ + ".html";
+				openedPages.add(path);
+				return new FileProvider(path, "UTF-8");
+			}
+		};
+
+		// We only want the first 4 search results. The third page will never be parsed.
+		try (HtmlRecordIterator records = new StreamingHtmlParser(entityList).iterate("search", pages)) {
+			records.stream()
+					.limit(4)
+					.forEach(record -> println(record.getString("title")));
+		}
+
+		println("Pages parsed: " + openedPages);
+		//##CODE_END
+		printAndValidate();
+	}
+
+	@Test
+	public void example014MemoryMappedInput() {
+		HtmlEntityList entityList = new HtmlEntityList();
+		configureCompany(entityList);
+		configureCompanyAddress(entityList);
+
+		//##CODE_START
+		// Decodes the file straight from memory, without copying its bytes into intermediate buffers.
+		MappedFileProvider input = new MappedFileProvider("documentation/tutorial/html/example_002/input.html", "UTF-8");
+
+		Results<HtmlParserResult> results = new HtmlParser(entityList).parse(input);
+		//##CODE_END
+
+		// Same output as example002ParseBusinessAndAddresses
+		printResults("", results);
+		printAndValidate();
+	}
+
+	@Test
+	public void example015ParsingArchivedPages() {
+		//##CODE_START
+		// The parser configuration is created once per worker thread.
+		Supplier<HtmlEntityList> searchEntities = () -> {
+			HtmlEntityList entityList = new HtmlEntityList();
+			HtmlEntitySettings search = entityList.configureEntity("search");
+			PartialPath resultPath = search.newPath().match("div").classes("result");
+			resultPath.addField("title").match("a").getText();
+			resultPath.addField("link").match("a").getAttribute("href");
+			return entityList;
+		};
+
+		// Parses all pages saved in a directory, e.g. the files downloaded by a previous crawl, using 3 threads.
+		List<Results<HtmlParserResult>> pages;
+		try (ConcurrentHtmlParser parser = new ConcurrentHtmlParser(searchEntities, 3)) {
+			pages = parser.parseDirectory("documentation/tutorial/html/example_009", "page*.html", "UTF-8");
+		}
+
+		// Pages are sorted by path, so the rows of each entity always come in the same order.
+		Map<String, List<String[]>> rows = ConcurrentHtmlParser.getRowsByEntity(pages);
+		//##CODE_END
+
+		printRows(pages.get(0).get("search").getHeaders(), rows.get("search"));
+		printAndValidate();
+	}
+
+	@Test
+	public void example016SharedParser() throws Exception {
+		Supplier<HtmlEntityList> entities = () -> {
+			HtmlEntityList entityList = new HtmlEntityList();
+			configureCompany(entityList);
+			configureCompanyAddress(entityList);
+			return entityList;
+		};
+
+		//##CODE_START
+		// A single instance can be used by all threads of a web service. Each call gets a parser that no other
+		// thread is using, and parsers are reused instead of being rebuilt for every call.
+		SharedHtmlParser parser = new SharedHtmlParser(entities);
+		//##CODE_END
+
+		String input = "documentation/tutorial/html/example_002/input.html";
+		Results<HtmlParserResult> expected = parse(new HtmlParser(entities.get()), input);
+
+		int threads = 8;
+		int parses = 200;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			// all threads start parsing at the same time
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<Results<HtmlParserResult>>> pending = new ArrayList<>();
+			for (int i = 0; i < parses; i++) {
+				pending.add(executor.submit(() -> {
+					start.await();
+					return parser.parse(new FileProvider(input, "UTF-8"));
+				}));
+			}
+			start.countDown();
+
+			int identical = 0;
+			for (Future<Results<HtmlParserResult>> result : pending) {
+				if (sameResults(expected, result.get())) {
+					identical++;
+				}
+			}
+			println("Parses: " + parses);
+			println("Identical to single-threaded results: " + identical);
+			println("At most one parser per thread: " + (parser.getParsersCreated() <= threads));
+		} finally {
+			executor.shutdownNow();
+		}
+		printAndValidate();
+	}
+
+	private static boolean sameResults(Results<HtmlParserResult> expected, Results<HtmlParserResult> actual) {
+		if (!expected.keySet().equals(actual.keySet())) {
+			return false;
+		}
+		for (String entity : expected.keySet()) {
+			HtmlParserResult e = expected.get(entity);
+			HtmlParserResult a = actual.get(entity);
+			if (!Arrays.equals(e.getHeaders(), a.getHeaders()) || e.getRows().size() != a.getRows().size()) {
+				return false;
+			}
+			for (int i = 0; i < e.getRows().size(); i++) {
+				if (!Arrays.equals(e.getRows().get(i), a.getRows().get(i))) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	@Test
+	public void example017HashJoin() {
+		HtmlEntityList entityList = new HtmlEntityList();
+
+		//parse company and address as before
+		configureCompany(entityList);
+		configureAddressFieldsInGroup(entityList);
+
+		HtmlParser parser = new HtmlParser(entityList);
+		Results<HtmlParserResult> results = parse(parser, "documentation/tutorial/html/example_002/input.html");
+
+		//##CODE_START
+		// Same as results.join("company", "address"), but matching rows through a hash table. Use this
+		// when both entities have many rows.
+		HashJoin join = HashJoin.of(results, "company", "address");
+
+		printRows(join.getHeaders(), join.getRows());
+		//##CODE_END
+
+		printAndValidate();
+	}
+
+	@Test
+	public void example018ColumnarStorage() {
+		HtmlEntityList entityList = new HtmlEntityList();
+
+		//parse company and address as before
+		configureCompany(entityList);
+		configureAddressFieldsInGroup(entityList);
+
+		//##CODE_START
+		// Stores the address rows column by column. Repeated values, such as the address type, are stored once,
+		// and company IDs are stored as long values. Field names are taken from the records of the parser.
+		ColumnarRowStore addresses = new ColumnarRowStore("address");
+		addresses.setLongColumn("company_id");
+
+		new StreamingHtmlParser(entityList).parse(new FileProvider("documentation/tutorial/html/example_002/input.html", "UTF-8"), addresses);
+
+		// rows are only converted to String[] here
+		printRows(addresses.getHeaders(), addresses.getRows());
+
+		println();
+		println("Distinct address types: " + addresses.getDistinctValueCount("type"));
+		println("Company of first address: " + addresses.getLong(0, "company_id"));
+		//##CODE_END
+
+		printAndValidate();
+	}
+
+	@Test
+	public void example019StreamingBeans() {
+		HtmlEntityList entityList = configureLinkFollowingWithNewEntities();
+
+		//##CODE_START
+		// List pages of a long crawl. Each one is parsed with its profile and address pages, and its users are
+		// handed over before the next list page is parsed.
+		List<FileProvider> listPages = Arrays.asList(new FileProvider("documentation/tutorial/html/example_008/list.html", "UTF-8"));
+
+		new StreamingHtmlParser(entityList).parseBeans(listPages, "User", User.class, user -> {
+			// push the user to a queue, or write it somewhere. We just print it.
+			println(user);
+			println();
+		});
+		//##CODE_END
+		printAndValidate();
+	}
+
+	@Test
+	public void example020ParserMetrics() {
+		HtmlEntityList entityList = example007ConfigureLinkFollowing();
+
+		//##CODE_START
+		// Collects metrics of the profile pages visited by the link follower
+		ParserMetrics metrics = new ParserMetrics();
+		entityList.getEntity("User").getRemoteFollower("profileUrl").getEntity("User").setListener(metrics);
+
+		FileProvider input = new FileProvider("documentation/tutorial/html/example_007/list.html", "UTF-8");
+		new HtmlParser(entityList).parse(input);
+
+		println("Profile pages parsed: " + metrics.getDocumentsParsed());
+		for (Map.Entry<String, Long> e : metrics.getMatchesPerField().entrySet()) {
+			println("Matches of " + e.getKey() + ": " + e.getValue());
+		}
+		//##CODE_END
+		printAndValidate();
+	}
+
+	@Test
+	public void example021BatchedListener() {
+		HtmlEntityList entityList = example007ConfigureLinkFollowing();
+
+		//##CODE_START
+		// Counts the elements with a "value" class, processing 64 visited elements at a time.
+		int[] valueElements = new int[1];
+		BatchingListener listener = new BatchingListener(64) {
+			@Override
+			protected void elementsVisited(List<HtmlElement> elements, HtmlParsingContext context) {
+				for (HtmlElement element : elements) {
+					if (element.classes().contains("value")) {
+						valueElements[0]++;
+					}
+				}
+			}
+		};
+		entityList.getEntity("User").getRemoteFollower("profileUrl").getEntity("User").setListener(listener);
+
+		FileProvider input = new FileProvider("documentation/tutorial/html/example_007/list.html", "UTF-8");
+		new HtmlParser(entityList).parse(input);
+
+		println("Elements with a \"value\" class in the profile pages: " + valueElements[0]);
+		//##CODE_END
+		printAndValidate();
+	}
+
+	@Test
+	public void example022IncrementalParsing() throws Exception {
+		HtmlEntityList entityList = new HtmlEntityList();
+		configureCompany(entityList);
+		configureCompanyAddress(entityList);
+
+		// a page saved by a crawl
+		File page = File.createTempFile("company", ".html");
+		File state = new File(page.getPath() + ".fingerprints");
+		try {
+			try (InputStream in = getClass().getResourceAsStream("/documentation/tutorial/html/example_002/input.html")) {
+				Files.copy(in, page.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+
+			//##CODE_START
+			// keeps the results of up to 100 pages in memory, and the fingerprints of all pages in a state file.
+			IncrementalParser parser = new IncrementalParser(entityList, "UTF-8", 100, state);
+
+			Results<HtmlParserResult> first = parser.parse(page);
+
+			// the page was downloaded again, but nothing changed: the previous results are returned.
+			Results<HtmlParserResult> second = parser.parse(page);
+			println("Unchanged page reused previous results: " + (first == second));
+
+			// the page changed, so it's parsed again.
+			Files.write(page.toPath(), "<!-- updated -->".getBytes("UTF-8"), StandardOpenOption.APPEND);
+			Results<HtmlParserResult> third = parser.parse(page);
+			println("Changed page parsed again: " + (third != second));
+
+			println("Pages parsed: " + parser.getParsedCount() + ", pages reused: " + parser.getReusedCount());
+			println("Companies: " + third.get("company").getRows().size());
+
+			// results are not stored, but fingerprints are: the next run can skip the pages that didn't change.
+			parser.save();
+			IncrementalParser nextRun = new IncrementalParser(entityList, "UTF-8", 100, state);
+			println("Page modified since the previous run: " + nextRun.isModified(page));
+			//##CODE_END
+		} finally {
+			page.delete();
+			state.delete();
+		}
+		printAndValidate();
+	}
 }
@@ -17,7 +17,10 @@ import org.testng.annotations.*;
 
 import java.io.*;
 import java.net.*;
+import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
 
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.*;
 
@@ -29,6 +32,9 @@ public class TutorialRemote extends Tutorial {
 	private MouseSearchMock mouseSearchMock;
 	private MemoryStickSearchMock memoryStickSearchMock;
 	private RealEstateMock realEstateMock;
+	private CachedPageMock cachedPageMock;
+	private LoopingPaginationMock loopingPaginationMock;
+	private SharedDetailsMock sharedDetailsMock;
 
 	@BeforeClass
 	public void setUp() throws Exception {
@@ -43,6 +49,15 @@ public class TutorialRemote extends Tutorial {
 
 		realEstateMock = new RealEstateMock(PORT);
 		realEstateMock.setup();
+
+		cachedPageMock = new CachedPageMock(PORT);
+		cachedPageMock.setup();
+
+		loopingPaginationMock = new LoopingPaginationMock(PORT);
+		loopingPaginationMock.setup();
+
+		sharedDetailsMock = new SharedDetailsMock(PORT);
+		sharedDetailsMock.setup();
 	}
 
 	@AfterClass
@@ -299,6 +314,265 @@ public class TutorialRemote extends Tutorial {
 
 	}
 
+	@Test
+	public void example006PrefetchingPages() {
+		//##CODE_START
+		// Each worker thread creates its own parser with this configuration. Notice there's no paginator here.
+		Supplier<HtmlEntityList> entities = () -> {
+			HtmlEntityList entityList = new HtmlEntityList();
+			entityList.getParserSettings().setRemoteInterval(10L);
+			entityList.configureEntity("houses")
+					.addField("propertyDetailsLink")
+					.match("div").id("galleryView")
+					.match("div").classes("listingContent")
+					.matchNext("h2").matchNext("a").getAttribute("href");
+			return entityList;
+		};
+
+		// The page number is a parameter of the URL, so we know the address of every page in advance.
+		String url = "http://localhost:8086/Property/Residential?search=&location={LOCATION_CODE}&proptype=&min=&max=&minbed=&maxbed=&formsearch=true&page={PAGE}";
+		UrlReaderProvider search = new UrlReaderProvider(url);
+		search.getRequest().setUrlParameter("LOCATION_CODE", "22008");
+
+		List<Results<HtmlParserResult>> pages;
+
+		// Requests up to 2 pages at a time. All worker threads wait for the interval between requests defined in the
+		// parser settings.
+		try (ConcurrentHtmlParser parser = new ConcurrentHtmlParser(entities, 2)) {
+			// Starts from page 1 and visits one more page after it.
+			pages = parser.parsePages(search, "PAGE", 1, 1);
+		}
+
+		// Rows of all pages, in page order.
+		List<String[]> houses = ConcurrentHtmlParser.getRows(pages, "houses");
+		//##CODE_END
+
+		printRows(pages.get(0).get("houses").getHeaders(), houses);
+		printAndValidate();
+	}
+
+	@Test
+	public void example007RateLimitedPagination() {
+		HtmlEntityList entities = new HtmlEntityList();
+
+		HtmlPaginator paginator = entities.getPaginator();
+		paginator.setNextPage().match("a").id("pagnNextLink").classes("pagnNext").getAttribute("href");
+		paginator.setFollowCount(2);
+
+		//##CODE_START
+		// Allows 2 requests per second to each host, with bursts of up to 5 requests and at most 2 requests in flight.
+		// The same rate limiter can be shared among all parsers of the application.
+		HostRateLimiter rateLimiter = new HostRateLimiter(2.0, 5, 2);
+
+		// Sites that can take more load can be given their own limits.
+		rateLimiter.setHostLimits("localhost", 10.0, 5, 2);
+
+		// The rate limiter replaces the global interval between requests
+		entities.getParserSettings().setRemoteInterval(0L);
+
+		// The paginator will wait for the rate limiter before going to the next page.
+		paginator.setPaginationHandler(rateLimiter.throttle(new NextInputHandler<HtmlPaginationContext>() {
+			@Override
+			public void prepareNextCall(HtmlPaginationContext remoteContext) {
+				println("Going to page " + (remoteContext.getPageCount() + 1) + ": " + remoteContext.getNextRequest().getUrl());
+			}
+		}));
+
+		new HtmlParser(entities).parse(new UrlReaderProvider("http://localhost:8086/s/field-keywords=mouse"));
+		//##CODE_END
+		printAndValidate();
+	}
+
+	@Test
+	public void example008CachedResponses() throws Exception {
+		HtmlEntityList entityList = new HtmlEntityList();
+		HtmlEntitySettings companies = entityList.configureEntity("companies");
+		companies.newPath().match("table").id("ctl00_*_grdSearchResult")
+				.addField("name").match("a").id("*_hpFirmName").getText();
+		HtmlParser parser = new HtmlParser(entityList);
+
+		File cacheDir = Files.createTempDirectory("response_cache").toFile();
+		String url = cachedPageMock.getBaseUrl() + CachedPageMock.PATH;
+
+		try {
+			//##CODE_START
+			// Stores up to 50MB of responses. Stored responses are always checked with the server before being used.
+			HttpResponseCache cache = new HttpResponseCache(cacheDir, 0, 50 * 1024 * 1024);
+
+			// first access: the page is downloaded and stored with its ETag.
+			println("Companies on first access: " + parser.parse(cache.get(url)).get("companies").getRows().size());
+
+			// second access: the server answers "304 Not Modified" and the stored page is parsed.
+			println("Companies on second access: " + parser.parse(cache.get(url)).get("companies").getRows().size());
+
+			println("Downloaded: " + cache.getDownloads());
+			println("Not modified: " + cache.getNotModified());
+
+			// A new cache over the same directory reuses the stored pages. Within one hour, pages are served from disk
+			// without contacting the server.
+			HttpResponseCache nextRun = new HttpResponseCache(cacheDir, TimeUnit.HOURS.toMillis(1), 50 * 1024 * 1024);
+			parser.parse(nextRun.get(url));
+			println("Served from disk without revalidation: " + nextRun.getHits());
+			//##CODE_END
+		} finally {
+			for (File file : cacheDir.listFiles()) {
+				file.delete();
+			}
+			cacheDir.delete();
+		}
+		printAndValidate();
+	}
+
+	@Test
+	public void example009ParallelResourceDownloads() {
+		List<String> downloads = Collections.synchronizedList(new ArrayList<>());
+
+		//##CODE_START
+		// Resources requested by any page, by any thread, are only downloaded once.
+		// Pages that need a resource being downloaded by another page wait until the download completes.
+		DeduplicatingDownloadHandler downloadHandler = new DeduplicatingDownloadHandler(context -> {
+			//we don't want to fetch linked html pages.
+			if ("html".equals(context.targetFileExtension())) {
+				return false;
+			}
+			downloads.add(String.valueOf(context.downloadUrl()));
+			return true;
+		});
+
+		// Each worker thread creates its own parser, but all of them use the same resource directory and
+		// download handler.
+		Supplier<HtmlEntityList> entities = () -> {
+			HtmlEntityList entityList = new HtmlEntityList();
+			HtmlParserSettings parserSettings = entityList.getParserSettings();
+			parserSettings.setDownloadContentDirectory("{user.home}/Downloads/realEstate/");
+			parserSettings.setFileNamePattern("{date, yyyy-MMM-dd}/parallel/location_{$location}_page_{$page}.html");
+			parserSettings.setDownloadOverwritingEnabled(true);
+
+			FetchOptions fetchOptions = new FetchOptions();
+			fetchOptions.setSharedResourceDir("{user.home}/Downloads/realEstate/cache");
+			fetchOptions.setDownloadHandler(downloadHandler);
+			parserSettings.fetchResourcesBeforeParsing(fetchOptions);
+
+			configureHouseDetailsParsing(entityList);
+			return entityList;
+		};
+
+		String url = "http://localhost:8086/Property/Residential?search=&location={LOCATION_CODE}&proptype=&min=&max=&minbed=&maxbed=&formsearch=true&page={PAGE}";
+		UrlReaderProvider search = new UrlReaderProvider(url);
+		search.getRequest().setUrlParameter("LOCATION_CODE", "22008");
+
+		// both result pages, their property details and resources are fetched at the same time.
+		try (ConcurrentHtmlParser parser = new ConcurrentHtmlParser(entities, 2)) {
+			parser.parsePages(search, "PAGE", 1, 1);
+		}
+		//##CODE_END
+
+		// without deduplication, the icons shared by all property pages would be downloaded twice.
+		Collections.sort(downloads);
+		for (String download : downloads) {
+			println("Downloaded " + download);
+		}
+		printAndValidate();
+	}
+
+	@Test
+	public void example010DeduplicatedPagination() throws Exception {
+		File downloadDir = Files.createTempDirectory("looping_pagination").toFile();
+		File seenPages = new File(downloadDir, "seen_pages.bin");
+		String url = loopingPaginationMock.urlForFirstPage();
+
+		try {
+			//##CODE_START
+			// Keeps the fingerprints of the contents of up to 100000 pages across runs, taking about 1 in 10000 new pages
+			// for a page seen before by mistake.
+			CrawlDeduplicator deduplicator = new CrawlDeduplicator(seenPages, 100000, 0.0001);
+
+			HtmlEntityList entityList = new HtmlEntityList();
+			entityList.configureEntity("items").addField("name").match("li").classes("item").getText();
+
+			// Pages are stored locally, so their contents can be fingerprinted without requesting them again.
+			entityList.getParserSettings().setDownloadContentDirectory(downloadDir.getAbsolutePath());
+			entityList.getParserSettings().setFileNamePattern("page_{$page}.html");
+			entityList.getParserSettings().setDownloadOverwritingEnabled(true);
+			entityList.getParserSettings().setRemoteInterval(0L);
+
+			// The last page links back to the first. Without deduplication, the paginator would go around in circles
+			// until the follow count is reached.
+			HtmlPaginator paginator = entityList.getPaginator();
+			paginator.setNextPage().match("a").classes("next").getAttribute("href");
+			paginator.setFollowCount(10);
+			paginator.setPaginationHandler(deduplicator.paginate(null));
+
+			// The first page is requested by the parser, so its URL is registered before parsing.
+			deduplicator.addUrl(url);
+			HtmlParserResult items = new HtmlParser(entityList).parse(new UrlReaderProvider(url)).get("items");
+			deduplicator.save();
+
+			println("Items collected: " + items.getRows().size());
+			println("Links to visited pages: " + deduplicator.getRepeatedUrlCount());
+			//##CODE_END
+
+			// A new item is added to the first page before the next run.
+			loopingPaginationMock.addItemToFirstPage();
+
+			//##CODE_START
+			// The next run loads the fingerprints saved by this run. The first page changed, so it's crawled again along
+			// with the next page, which is the same as before: pagination stops there.
+			CrawlDeduplicator nextRun = new CrawlDeduplicator(seenPages, 100000, 0.0001);
+			paginator.setPaginationHandler(nextRun.paginate(null));
+			nextRun.addUrl(url);
+			items = new HtmlParser(entityList).parse(new UrlReaderProvider(url)).get("items");
+
+			println("Items collected by the next run: " + items.getRows().size());
+			println("Pages unchanged since the previous run: " + nextRun.getUnchangedPageCount());
+			//##CODE_END
+		} finally {
+			loopingPaginationMock.resetFirstPage();
+			for (File file : downloadDir.listFiles()) {
+				file.delete();
+			}
+			downloadDir.delete();
+		}
+		printAndValidate();
+	}
+
+	@Test
+	public void example011DeduplicatedLinks() {
+		String url = sharedDetailsMock.urlForListing();
+
+		//##CODE_START
+		CrawlDeduplicator deduplicator = new CrawlDeduplicator();
+
+		HtmlEntityList entityList = new HtmlEntityList();
+		entityList.getParserSettings().setRemoteInterval(0L);
+
+		PartialPath product = entityList.configureEntity("products").newPath().match("li").classes("product");
+		product.addField("name").match("span").classes("name").getText();
+
+		// Two products link to the same details page. The link following handler skips the second request, and the
+		// link stays in the row of both products.
+		HtmlLinkFollower details = product.addField("detailsLink").match("a").getAttribute("href").followLink();
+		details.addField("description").match("p").classes("description").getText();
+		details.setNesting(Nesting.JOIN);
+		details.setLinkFollowingHandler(deduplicator.followLinks(null));
+
+		HtmlParserResult products = new HtmlParser(entityList).parse(new UrlReaderProvider(url)).get("products");
+
+		// The description is collected from the page once: copy it into every product that links to the same page.
+		List<String[]> rows = CrawlDeduplicator.fillSkippedLinks(products, "detailsLink", "description");
+		int name = Arrays.asList(products.getHeaders()).indexOf("name");
+		int link = Arrays.asList(products.getHeaders()).indexOf("detailsLink");
+		int description = Arrays.asList(products.getHeaders()).indexOf("description");
+		for (String[] row : rows) {
+			println(row[name] + ": " + row[description] + (row[link] == null ? " (no link)" : ""));
+		}
+		println("Links to visited pages: " + deduplicator.getRepeatedUrlCount());
+		//##CODE_END
+
+		println("Requests for the shared details page: " + sharedDetailsMock.countRequests(SharedDetailsMock.DETAILS_PATH + 1));
+		printAndValidate();
+	}
+
 	@Test(enabled = false) //disabled by default as this one goes to the internet.
 	public void example005SavePageLikeABrowser() {
 		//##CODE_START
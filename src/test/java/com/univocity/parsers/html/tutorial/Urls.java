@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.tutorial;
+
+import java.net.*;
+import java.util.*;
+
+/**
+ * Utility methods to compare URLs found in pages and requests.
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+public final class Urls {
+
+	private Urls() {
+	}
+
+	/**
+	 * Normalizes a URL so that equivalent URLs are written the same way: the scheme and host are converted to lower
+	 * case, default ports and fragments are removed, and the query parameters are sorted. For example,
+	 * {@code http://Example.com:80/list?b=2&a=1#top} becomes {@code http://example.com/list?a=1&b=2}.
+	 *
+	 * Relative URLs and URLs that can't be parsed are returned unchanged.
+	 *
+	 * @param url the URL to normalize
+	 *
+	 * @return the normalized URL.
+	 */
+	public static String normalize(String url) {
+		URI uri;
+		try {
+			uri = new URI(url);
+		} catch (URISyntaxException e) {
+			return url;
+		}
+		if (uri.getScheme() == null || uri.getHost() == null) {
+			return url;
+		}
+		String scheme = uri.getScheme().toLowerCase();
+		int port = uri.getPort();
+		if (("http".equals(scheme) && port == 80) || ("https".equals(scheme) && port == 443)) {
+			port = -1;
+		}
+
+		StringBuilder out = new StringBuilder();
+		out.append(scheme).append("://").append(uri.getHost().toLowerCase());
+		if (port != -1) {
+			out.append(':').append(port);
+		}
+		String path = uri.getRawPath();
+		out.append(path == null || path.isEmpty() ? "/" : path);
+
+		String query = uri.getRawQuery();
+		if (query != null && !query.isEmpty()) {
+			String[] parameters = query.split("&");
+			Arrays.sort(parameters);
+			out.append('?').append(String.join("&", parameters));
+		}
+		return out.toString();
+	}
+}
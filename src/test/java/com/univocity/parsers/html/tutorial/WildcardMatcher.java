@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.html.tutorial;
+
+import java.util.*;
+
+/**
+ * A pattern with wildcards, such as the ones given to {@code id("*_hpFirmName")} or {@code withText("* address")},
+ * compiled once into the cheapest test that can evaluate it:
+ *
+ * <ul>
+ * <li>{@code "abc"}: exact match</li>
+ * <li>{@code "abc*"}: prefix match</li>
+ * <li>{@code "*abc"}: suffix match</li>
+ * <li>{@code "*abc*"}: substring search</li>
+ * <li>anything else: the text between each {@code *} is searched in sequence</li>
+ * </ul>
+ *
+ * A {@code *} matches any sequence of characters, including an empty one, and a {@code ?} matches exactly one
+ * character. Substrings are searched with the Boyer-Moore-Horspool algorithm. When matching ignoring case, characters
+ * are folded one at a time, so no lower case copies of the input are created.
+ *
+ * Instances are immutable and thread-safe.
+ *
+ * @author Univocity Software Pty Ltd - <a href="mailto:dev@univocity.com">dev@univocity.com</a>
+ */
+public abstract class WildcardMatcher {
+
+	/**
+	 * The kinds of test a pattern can be compiled into
+	 */
+	public enum Kind {
+		EXACT, PREFIX, SUFFIX, CONTAINS, SEGMENTS
+	}
+
+	private final String pattern;
+	private final Kind kind;
+
+	private WildcardMatcher(String pattern, Kind kind) {
+		this.pattern = pattern;
+		this.kind = kind;
+	}
+
+	/**
+	 * Compiles a case sensitive pattern
+	 *
+	 * @param pattern the pattern, with optional {@code *} and {@code ?} wildcards
+	 *
+	 * @return the compiled pattern.
+	 */
+	public static WildcardMatcher compile(String pattern) {
+		return compile(pattern, false);
+	}
+
+	/**
+	 * Compiles a pattern
+	 *
+	 * @param pattern    the pattern, with optional {@code *} and {@code ?} wildcards
+	 * @param ignoreCase flag indicating whether the letter case should be ignored when matching.
+	 *
+	 * @return the compiled pattern.
+	 */
+	public static WildcardMatcher compile(String pattern, boolean ignoreCase) {
+		if (pattern == null) {
+			throw new IllegalArgumentException("Pattern cannot be null");
+		}
+
+		List<Segment> segments = new ArrayList<>();
+		int start = 0;
+		int star;
+		while ((star = pattern.indexOf('*', start)) != -1) {
+			segments.add(new Segment(pattern.substring(start, star), ignoreCase));
+			start = star + 1;
+		}
+		segments.add(new Segment(pattern.substring(start), ignoreCase));
+
+		if (segments.size() == 1) {
+			return new Anchored(pattern, Kind.EXACT, segments.get(0), true, true);
+		}
+
+		// empty segments at the beginning or end of the list come from leading or trailing stars.
+		Segment first = segments.get(0);
+		Segment last = segments.get(segments.size() - 1);
+		List<Segment> middle = new ArrayList<>();
+		for (int i = 1; i < segments.size() - 1; i++) {
+			if (segments.get(i).length() > 0) {
+				middle.add(segments.get(i));
+			}
+		}
+
+		if (middle.isEmpty()) {
+			if (first.length() == 0 && last.length() == 0) {
+				return new Anchored(pattern, Kind.SEGMENTS, first, false, false); // only stars: matches anything
+			}
+			if (last.length() == 0) {
+				return new Anchored(pattern, Kind.PREFIX, first, true, false);
+			}
+			if (first.length() == 0) {
+				return new Anchored(pattern, Kind.SUFFIX, last, false, true);
+			}
+		} else if (middle.size() == 1 && first.length() == 0 && last.length() == 0) {
+			return new Contains(pattern, middle.get(0));
+		}
+		return new Segments(pattern, first, middle, last);
+	}
+
+	/**
+	 * Tests whether the given text matches this pattern.
+	 *
+	 * @param text the text to test. {@code null} never matches.
+	 *
+	 * @return {@code true} if the text matches the pattern.
+	 */
+	public final boolean matches(CharSequence text) {
+		return text != null && matches(text, 0, text.length());
+	}
+
+	abstract boolean matches(CharSequence text, int from, int to);
+
+	/**
+	 * Returns the original pattern
+	 *
+	 * @return the pattern given to {@link #compile(String, boolean)}
+	 */
+	public final String getPattern() {
+		return pattern;
+	}
+
+	/**
+	 * Returns the kind of test this pattern was compiled into
+	 *
+	 * @return the kind of test used to evaluate this pattern.
+	 */
+	public final Kind getKind() {
+		return kind;
+	}
+
+	@Override
+	public String toString() {
+		return kind + "(" + pattern + ")";
+	}
+
+	private static char fold(char ch) {
+		return Character.toLowerCase(Character.toUpperCase(ch));
+	}
+
+	/**
+	 * Text between stars. Matches at a given position, or can be searched for in a range of the input.
+	 */
+	private static final class Segment {
+		private static final int TABLE_SIZE = 256;
+
+		final char[] chars;
+		final boolean ignoreCase;
+		final boolean hasPlaceholder;
+		final int[] shifts;
+
+		Segment(String text, boolean ignoreCase) {
+			this.ignoreCase = ignoreCase;
+			this.chars = text.toCharArray();
+			boolean placeholder = false;
+			for (int i = 0; i < chars.length; i++) {
+				if (ignoreCase) {
+					chars[i] = fold(chars[i]);
+				}
+				placeholder |= chars[i] == '?';
+			}
+			this.hasPlaceholder = placeholder;
+			this.shifts = placeholder || chars.length < 2 ? null : buildShiftTable(chars);
+		}
+
+		private static int[] buildShiftTable(char[] chars) {
+			int[] shifts = new int[TABLE_SIZE];
+			Arrays.fill(shifts, chars.length);
+			for (int i = 0; i < chars.length - 1; i++) {
+				shifts[chars[i] & (TABLE_SIZE - 1)] = chars.length - 1 - i;
+			}
+			return shifts;
+		}
+
+		int length() {
+			return chars.length;
+		}
+
+		boolean matchesAt(CharSequence text, int position) {
+			for (int i = 0; i < chars.length; i++) {
+				char expected = chars[i];
+				if (expected == '?') {
+					continue;
+				}
+				char ch = text.charAt(position + i);
+				if (ch != expected && !(ignoreCase && fold(ch) == expected)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Returns the position of the first occurrence of this segment within {@code [from, to)}, or -1.
+		 */
+		int indexIn(CharSequence text, int from, int to) {
+			int last = to - chars.length;
+			if (shifts == null) {
+				for (int i = from; i <= last; i++) {
+					if (matchesAt(text, i)) {
+						return i;
+					}
+				}
+				return -1;
+			}
+
+			// Boyer-Moore-Horspool: compares the last character of the window first and skips ahead on mismatch.
+			int end = chars.length - 1;
+			for (int i = from; i <= last; ) {
+				char ch = text.charAt(i + end);
+				if (ignoreCase) {
+					ch = fold(ch);
+				}
+				if (ch == chars[end] && matchesAt(text, i)) {
+					return i;
+				}
+				i += shifts[ch & (TABLE_SIZE - 1)];
+			}
+			return -1;
+		}
+	}
+
+	private static final class Anchored extends WildcardMatcher {
+		private final Segment segment;
+		private final boolean atStart;
+		private final boolean atEnd;
+
+		Anchored(String pattern, Kind kind, Segment segment, boolean atStart, boolean atEnd) {
+			super(pattern, kind);
+			this.segment = segment;
+			this.atStart = atStart;
+			this.atEnd = atEnd;
+		}
+
+		@Override
+		boolean matches(CharSequence text, int from, int to) {
+			int length = segment.length();
+			int available = to - from;
+			if (atStart && atEnd) {
+				return available == length && segment.matchesAt(text, from);
+			}
+			if (available < length) {
+				return false;
+			}
+			if (atStart) {
+				return segment.matchesAt(text, from);
+			}
+			if (atEnd) {
+				return segment.matchesAt(text, to - length);
+			}
+			return true;
+		}
+	}
+
+	private static final class Contains extends WildcardMatcher {
+		private final Segment segment;
+
+		Contains(String pattern, Segment segment) {
+			super(pattern, Kind.CONTAINS);
+			this.segment = segment;
+		}
+
+		@Override
+		boolean matches(CharSequence text, int from, int to) {
+			return segment.indexIn(text, from, to) != -1;
+		}
+	}
+
+	private static final class Segments extends WildcardMatcher {
+		private final Segment first;
+		private final Segment[] middle;
+		private final Segment last;
+
+		Segments(String pattern, Segment first, List<Segment> middle, Segment last) {
+			super(pattern, Kind.SEGMENTS);
+			this.first = first;
+			this.middle = middle.toArray(new Segment[0]);
+			this.last = last;
+		}
+
+		@Override
+		boolean matches(CharSequence text, int from, int to) {
+			if (to - from < first.length() + last.length()) {
+				return false;
+			}
+			if (!first.matchesAt(text, from) || !last.matchesAt(text, to - last.length())) {
+				return false;
+			}
+
+			// the leftmost occurrence of each segment leaves the most room for the segments after it.
+			int position = from + first.length();
+			int end = to - last.length();
+			for (Segment segment : middle) {
+				int index = segment.indexIn(text, position, end);
+				if (index == -1) {
+					return false;
+				}
+				position = index + segment.length();
+			}
+			return true;
+		}
+	}
+}
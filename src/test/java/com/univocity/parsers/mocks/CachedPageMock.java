@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.mocks;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+
+/**
+ * Serves a page with an {@code ETag}, answering {@code 304 Not Modified} to requests that already have the current
+ * version of the page.
+ */
+public class CachedPageMock extends Mock {
+
+	public static final String PATH = "/companies/search.html";
+	public static final String ETAG = "\"v1\"";
+
+	public CachedPageMock(int port) {
+		super(port);
+	}
+
+	public void setup() {
+		stubFor(get(urlEqualTo(PATH))
+				.withHeader("If-None-Match", equalTo(ETAG))
+				.atPriority(1)
+				.willReturn(aResponse()
+						.withStatus(304)
+						.withHeader("ETag", ETAG)));
+
+		stubFor(get(urlEqualTo(PATH))
+				.atPriority(2)
+				.willReturn(aResponse()
+						.withStatus(200)
+						.withHeader("ETag", ETAG)
+						.withHeader("Content-Type", "text/html; charset=UTF-8")
+						.withBodyFile("company_finder/file_1.html")));
+	}
+}
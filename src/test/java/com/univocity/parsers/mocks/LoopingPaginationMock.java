@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.mocks;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+
+/**
+ * Serves a listing split in 3 pages, where the "next" link of the last page points back to the first. A new item can
+ * be added to the first page with {@link #addItemToFirstPage()}, and removed with {@link #resetFirstPage()}.
+ */
+public class LoopingPaginationMock extends Mock {
+
+	public static final String PATH = "/listing";
+
+	public LoopingPaginationMock(int port) {
+		super(port);
+	}
+
+	public void setup() {
+		for (int i = 1; i <= 3; i++) {
+			stubFor(get(urlEqualTo(PATH + "?page=" + i))
+					.willReturn(aResponse()
+							.withStatus(200)
+							.withHeader("Content-Type", "text/html; charset=UTF-8")
+							.withBodyFile("looping_pagination/page_" + i + ".html")));
+		}
+	}
+
+	public void addItemToFirstPage() {
+		stubFirstPage("looping_pagination/page_1_updated.html");
+	}
+
+	/**
+	 * Serves the original first page again, after {@link #addItemToFirstPage()}.
+	 */
+	public void resetFirstPage() {
+		stubFirstPage("looping_pagination/page_1.html");
+	}
+
+	// among stubs with the same priority, the one registered last is used.
+	private void stubFirstPage(String bodyFile) {
+		stubFor(get(urlEqualTo(PATH + "?page=1"))
+				.atPriority(1)
+				.willReturn(aResponse()
+						.withStatus(200)
+						.withHeader("Content-Type", "text/html; charset=UTF-8")
+						.withBodyFile(bodyFile)));
+	}
+
+	public String urlForFirstPage() {
+		return getBaseUrl() + PATH + "?page=1";
+	}
+}
@@ -40,6 +40,15 @@ public abstract class Mock {
 		return baseUrl;
 	}
 
+	/**
+	 * Returns the number of requests received by the mock server for a URL.
+	 * @param url the path and query of the URL, e.g. {@code "/shop/details?id=1"}
+	 * @return the number of requests received for the given URL.
+	 */
+	public final int countRequests(String url) {
+		return mock.find(WireMock.getRequestedFor(WireMock.urlEqualTo(url))).size();
+	}
+
 	/**
 	 * Configures the mock endpoints. Subclasses will typically map URLs to files stored locally.
 	 */
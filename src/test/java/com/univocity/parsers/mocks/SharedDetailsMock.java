@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2013 Univocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.univocity.parsers.mocks;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+
+/**
+ * Serves a product listing where two products link to the same details page.
+ */
+public class SharedDetailsMock extends Mock {
+
+	public static final String PATH = "/shop/products";
+	public static final String DETAILS_PATH = "/shop/details?id=";
+
+	public SharedDetailsMock(int port) {
+		super(port);
+	}
+
+	public void setup() {
+		stubFor(get(urlEqualTo(PATH))
+				.willReturn(aResponse()
+						.withStatus(200)
+						.withHeader("Content-Type", "text/html; charset=UTF-8")
+						.withBodyFile("shared_details/listing.html")));
+
+		for (int i = 1; i <= 2; i++) {
+			stubFor(get(urlEqualTo(DETAILS_PATH + i))
+					.willReturn(aResponse()
+							.withStatus(200)
+							.withHeader("Content-Type", "text/html; charset=UTF-8")
+							.withBodyFile("shared_details/details_" + i + ".html")));
+		}
+	}
+
+	public String urlForListing() {
+		return getBaseUrl() + PATH;
+	}
+}